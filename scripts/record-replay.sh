@@ -0,0 +1,16 @@
+#!/usr/bin/env bash
+# Records a run against the stub, then replays it offline, to check a recording stays valid.
+#
+#   scripts/record-replay.sh [extra -D options passed to both runs]
+#   scripts/record-replay.sh -Dcucumber.filter.name=".*generated population"
+#
+# The recording goes to target/record-replay/petstore.replay and leaves replay.file alone.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+FILE=target/record-replay/petstore.replay
+rm -f "$FILE"
+
+mvn -B test -Dreplay.mode=record -Dreplay.file="$FILE" "$@"
+mvn -B test -Dreplay.mode=replay -Dreplay.file="$FILE" "$@"
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Runs the suite as N shards in separate JVMs on this machine, then merges their reports.
+#
+#   scripts/run-shards.sh [N] [extra -D options passed to every shard]
+#   scripts/run-shards.sh 3 -Dshard.strategy=round-robin -Dstub.latencyMs=20
+#
+# On CI, run one shard per node instead:
+#   mvn test -Dshard.total=N -Dshard.index=$NODE_INDEX
+# then collect target/shards/shard-*/ on one node and run ShardReportMerger there.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+TOTAL="${1:-2}"
+shift || true
+
+# Compile once; the shards share target/ and must not run Maven concurrently
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+CP="target/test-classes:target/classes:$(cat target/classpath.txt)"
+
+rm -rf target/shards
+mkdir -p target/shards
+
+pids=()
+for ((i = 0; i < TOTAL; i++)); do
+    java -cp "$CP" -Dshard.total="$TOTAL" -Dshard.index="$i" "$@" \
+        org.junit.platform.console.ConsoleLauncher execute --disable-banner \
+        --include-engine junit-platform-suite --select-class com.petstore.runners.TestRunner > "target/shards/shard-$i.log" 2>&1 &
+    pids+=($!)
+done
+
+status=0
+for ((i = 0; i < TOTAL; i++)); do
+    if wait "${pids[$i]}"; then
+        echo "shard $i passed"
+    else
+        echo "shard $i FAILED (see target/shards/shard-$i.log)"
+        status=1
+    fi
+done
+
+java -cp "$CP" "$@" com.petstore.sharding.ShardReportMerger target/shards target
+exit $status
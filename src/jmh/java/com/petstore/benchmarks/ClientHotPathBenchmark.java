@@ -0,0 +1,65 @@
+package com.petstore.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.petstore.api.ApiClient;
+import com.petstore.models.Pet;
+import com.petstore.utils.DataGenerator;
+import com.petstore.utils.JsonUtils;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call client costs for a single pet: mapping, serialization, test data and request setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientHotPathBenchmark {
+
+    private StubFixture fixture;
+    private Response petResponse;
+    private Pet pet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = StubFixture.start();
+        Pet created = fixture.createPets(1, "available");
+        petResponse = fixture.get("/pet/" + created.getId());
+        pet = petResponse.as(Pet.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    /** Deserialization as done by PetSteps after GET /pet/{id}. */
+    @Benchmark
+    public Pet responseAsPet() {
+        return petResponse.as(Pet.class);
+    }
+
+    /** Serialization of a request body, as done for POST and PUT /pet. */
+    @Benchmark
+    public byte[] serializePet() throws JsonProcessingException {
+        return JsonUtils.mapper().writeValueAsBytes(pet);
+    }
+
+    @Benchmark
+    public Pet getPetFromFile() {
+        return DataGenerator.getPetFromFile(0);
+    }
+
+    /** Per-request specification copy made by ApiUtils for every call. */
+    @Benchmark
+    public RequestSpecification given() {
+        return ApiClient.given();
+    }
+}
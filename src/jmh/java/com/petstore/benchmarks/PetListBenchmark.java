@@ -0,0 +1,51 @@
+package com.petstore.benchmarks;
+
+import com.petstore.models.Pet;
+import com.petstore.utils.JsonUtils;
+import com.petstore.utils.SchemaRegistry;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization and per-element schema validation of a findByStatus response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PetListBenchmark {
+
+    @Param({"100", "2000"})
+    public int listSize;
+
+    private StubFixture fixture;
+    private Response listResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = StubFixture.start();
+        fixture.createPets(listSize, "available");
+        listResponse = fixture.get("/pet/findByStatus?status=available");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public Pet[] responseAsPetArray() {
+        return listResponse.as(Pet[].class);
+    }
+
+    @Benchmark
+    public int registryEachValid() throws IOException {
+        return SchemaRegistry.assertEachValid(SchemaRegistry.PET,
+                JsonUtils.mapper().readTree(listResponse.asByteArray()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.petstore.benchmarks;
+
+import com.petstore.models.Pet;
+import com.petstore.utils.SchemaRegistry;
+import io.restassured.response.Response;
+import io.restassured.response.ValidatableResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+
+/**
+ * Schema assertions: per-call classpath loading versus the precompiled SchemaRegistry
+ * used by PetSteps.validatePetSchema and validateErrorSchema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaValidationBenchmark {
+
+    private StubFixture fixture;
+    private Response petResponse;
+    private Response errorResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = StubFixture.start();
+        Pet created = fixture.createPets(1, "available");
+        petResponse = fixture.get("/pet/" + created.getId());
+        errorResponse = fixture.get("/pet/1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public ValidatableResponse petSchemaInClasspath() {
+        return petResponse.then().assertThat().body(matchesJsonSchemaInClasspath("schema/pet-schema.json"));
+    }
+
+    @Benchmark
+    public ValidatableResponse errorSchemaInClasspath() {
+        return errorResponse.then().assertThat().body(matchesJsonSchemaInClasspath("schema/error-schema.json"));
+    }
+
+    @Benchmark
+    public Response petSchemaRegistry() {
+        SchemaRegistry.assertValid(SchemaRegistry.PET, petResponse);
+        return petResponse;
+    }
+
+    @Benchmark
+    public Response errorSchemaRegistry() {
+        SchemaRegistry.assertValid(SchemaRegistry.ERROR, errorResponse);
+        return errorResponse;
+    }
+}
@@ -0,0 +1,54 @@
+package com.petstore.benchmarks;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.models.Pet;
+import com.petstore.stub.PetStoreStubServer;
+import com.petstore.utils.ApiUtils;
+import com.petstore.utils.DataGenerator;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+
+/**
+ * StubFixture runs the embedded PetStore stub for a benchmark trial.
+ *
+ * <p>Benchmarks capture real RestAssured responses from the stub during setup and then
+ * measure only the client-side work on them, so results do not depend on the network
+ * or on a shared server.</p>
+ */
+class StubFixture {
+
+    private final PetStoreStubServer stub;
+
+    private StubFixture(PetStoreStubServer stub) {
+        this.stub = stub;
+    }
+
+    static StubFixture start() throws IOException {
+        PetStoreStubServer stub = new PetStoreStubServer().start(0);
+        ConfigManager.override("petstore.baseUrl", stub.getBaseUrl());
+        return new StubFixture(stub);
+    }
+
+    /**
+     * Creates {@code count} pets with the given status and returns the last one as stored by the stub.
+     */
+    Pet createPets(int count, String status) {
+        Pet pet = null;
+        for (int i = 0; i < count; i++) {
+            pet = DataGenerator.getPetFromFile(0);
+            pet.setStatus(status);
+            ApiUtils.validateStatusCode(ApiUtils.post("/pet", pet), 200);
+        }
+        return pet;
+    }
+
+    Response get(String endpoint) {
+        return ApiUtils.get(endpoint);
+    }
+
+    void stop() {
+        stub.stop();
+        ConfigManager.clearOverride("petstore.baseUrl");
+    }
+}
@@ -0,0 +1,373 @@
+package com.petstore.api;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.ApiMetrics;
+import com.petstore.metrics.TimingProbe;
+import com.petstore.utils.JsonUtils;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiClient is the single HTTP transport shared by every API call in the framework.
+ *
+ * <p>It builds one RequestSpecification up front (base URI, API key header and
+ * RestAssured config, including the shared {@link JsonUtils#mapper()}) and one
+ * Apache HttpClient backed by a pooling connection manager. RestAssured is told to
+ * reuse that client instance, so connections are kept alive and reused across
+ * requests and threads instead of paying a new TCP/TLS handshake per call.</p>
+ *
+ * <p>Pool sizes and timeouts come from {@link ConfigManager}. The specification is
+ * built lazily from the current configuration snapshot and rebuilt only when a new
+ * snapshot is published (e.g. a hot reload or a runtime base URL override). The
+ * pooled client is replaced only if the HTTP settings themselves changed; the old pool
+ * is shut down once requests already running on it have had time to finish.</p>
+ *
+ * <p>Requests are retried according to the endpoint's {@link RetryPolicy} (see
+ * {@link RetryPolicies}), within a global {@link RetryBudget}. A {@link CircuitBreaker}
+ * per base URL fails requests fast with {@link CircuitOpenException} while the upstream
+ * is down. Before every attempt, the {@link RequestScheduler} waits for a slot if a
+ * rate limit is configured. Concurrent identical GETs are de-duplicated by the
+ * {@link RequestCoalescer}, and every write invalidates what it may have changed.</p>
+ *
+ * <p>Every attempt sent through {@link #send} is timed and recorded in {@link ApiMetrics}
+ * and the calling thread's {@link TimingProbe}.
+ * With {@code replay.mode} set, exchanges are recorded to or served from disk by
+ * {@link RecordReplay}.</p>
+ */
+public class ApiClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiClient.class);
+
+    private static volatile Transport transport;
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private static volatile Budget budget;
+
+    /**
+     * Starts a new request from the shared, pre-built specification.
+     * The returned specification is a per-request copy and may be customized freely.
+     *
+     * @return RequestSpecification with base URI, API key and pooled HTTP config applied
+     */
+    public static RequestSpecification given() {
+        return RestAssured.given(transport().spec);
+    }
+
+    /**
+     * Sends a request through the shared transport.
+     *
+     * @param method   HTTP method
+     * @param endpoint API endpoint relative to the base URL (e.g., "/pet/12345")
+     * @param body     Request body sent as JSON, or null for no body
+     * @return Response object containing status code, headers, and body
+     */
+    public static Response send(Method method, String endpoint, Object body) {
+        return send(method, endpoint, body, RequestScheduler.Priority.NORMAL);
+    }
+
+    /**
+     * Sends a request through the shared transport with the given scheduling priority.
+     * Identical concurrent GETs share one request (see {@link RequestCoalescer}).
+     *
+     * @param method   HTTP method
+     * @param endpoint API endpoint relative to the base URL (e.g., "/pet/12345")
+     * @param body     Request body sent as JSON, or null for no body
+     * @param priority Priority when a rate limit is configured (see {@link RequestScheduler})
+     * @return Response object containing status code, headers, and body
+     */
+    public static Response send(Method method, String endpoint, Object body, RequestScheduler.Priority priority) {
+        if (method == Method.GET) {
+            if (RequestCoalescer.isEnabled()) {
+                return RequestCoalescer.get(endpoint, () -> sendOrReplay(method, endpoint, body, priority));
+            }
+            return sendOrReplay(method, endpoint, body, priority);
+        }
+        try {
+            return sendOrReplay(method, endpoint, body, priority);
+        } finally {
+            RequestCoalescer.onWrite(method, endpoint, body);
+        }
+    }
+
+    // Sends live or, with replay.mode set, records or replays the exchange
+    private static Response sendOrReplay(Method method, String endpoint, Object body,
+                                         RequestScheduler.Priority priority) {
+        if (!RecordReplay.isActive()) {
+            return sendWithRetry(method, endpoint, body, priority);
+        }
+        RecordReplay.Exchange exchange = RecordReplay.prepare(method, endpoint, body);
+        if (RecordReplay.isReplaying()) {
+            long start = System.nanoTime();
+            Response response = exchange.replay();
+            long elapsed = System.nanoTime() - start;
+            ApiMetrics.record(method.name(), endpoint, response.getStatusCode(), elapsed);
+            TimingProbe.addHttp(elapsed);
+            return response;
+        }
+        Response response = sendWithRetry(method, endpoint, exchange.getBody(), priority);
+        exchange.record(response);
+        return response;
+    }
+
+    /**
+     * Returns the circuit breaker guarding the current base URL.
+     */
+    public static CircuitBreaker circuitBreaker() {
+        PetStoreConfig config = ConfigManager.get();
+        return BREAKERS.computeIfAbsent(config.getBaseUrl(), baseUrl -> new CircuitBreaker(baseUrl,
+                config.getInt("circuit.windowSize"), config.getInt("circuit.minCalls"),
+                config.getDouble("circuit.failureRateThreshold"), config.getLong("circuit.openMs")));
+    }
+
+    /**
+     * Returns the retry budget shared by all requests. A configuration snapshot that changes
+     * {@code retry.budgetRatio} or {@code retry.budgetMinRetries} replaces it with a full one.
+     */
+    public static RetryBudget retryBudget() {
+        PetStoreConfig config = ConfigManager.get();
+        Budget b = budget;
+        if (b == null || b.config != config) {
+            b = rebuildBudget(config);
+        }
+        return b.retryBudget;
+    }
+
+    // Other snapshots, e.g. the stub's base URL override, keep the current balance
+    private static synchronized Budget rebuildBudget(PetStoreConfig config) {
+        Budget previous = budget;
+        if (previous != null && previous.config == config) {
+            return previous;
+        }
+        double ratio = config.getDouble("retry.budgetRatio");
+        int minRetries = config.getInt("retry.budgetMinRetries");
+        RetryBudget retryBudget = previous != null && previous.ratio == ratio && previous.minRetries == minRetries
+                ? previous.retryBudget
+                : new RetryBudget(ratio, minRetries);
+        budget = new Budget(config, ratio, minRetries, retryBudget);
+        return budget;
+    }
+
+    // Sends with the endpoint's RetryPolicy, behind the scheduler, circuit breaker and retry budget; every attempt is timed
+    private static Response sendWithRetry(Method method, String endpoint, Object body,
+                                          RequestScheduler.Priority priority) {
+        RetryPolicy policy = RetryPolicies.forRequest(method, endpoint);
+        CircuitBreaker breaker = circuitBreaker();
+        RetryBudget retryBudget = retryBudget();
+        retryBudget.onRequest();
+
+        long start = System.nanoTime();
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            try {
+                RequestScheduler.acquire(method, endpoint, priority);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ApiException(method + " " + endpoint + " interrupted while waiting for a rate limit slot", e);
+            }
+            long permit = breaker.acquirePermission();
+
+            long attemptStart = System.nanoTime();
+            int status = -1;
+            Response response = null;
+            Exception failure = null;
+            try {
+                response = execute(method, endpoint, body);
+                status = response.getStatusCode();
+            } catch (Exception e) {
+                // RestAssured rethrows I/O exceptions unchecked, so they surface here as checked types
+                failure = e;
+            } finally {
+                long elapsed = System.nanoTime() - attemptStart;
+                ApiMetrics.record(method.name(), endpoint, status, elapsed);
+                TimingProbe.addHttp(elapsed);
+            }
+
+            if (failure != null || status >= 500) {
+                breaker.onFailure(permit);
+            } else {
+                breaker.onSuccess(permit);
+            }
+
+            boolean retryable = failure != null ? policy.isRetryable(failure) : policy.isRetryable(status);
+            if (retryable && attempt < policy.getMaxAttempts()) {
+                long delayMs = policy.backoffMs(attempt);
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (elapsedMs + delayMs <= policy.getMaxElapsedMs() && retryBudget.tryAcquire()) {
+                    logger.debug("Retrying {} {} after {} (attempt {} of {}, waiting {} ms)", method, endpoint,
+                            failure != null ? failure.getClass().getSimpleName() : "HTTP " + status,
+                            attempt, policy.getMaxAttempts(), delayMs);
+                    if (sleep(delayMs)) {
+                        continue;
+                    }
+                }
+            }
+
+            if (failure != null) {
+                throw failure instanceof RuntimeException ? (RuntimeException) failure
+                        : new ApiException(method + " " + endpoint + " failed after " + attempt + " attempt(s)", failure);
+            }
+            return response;
+        }
+    }
+
+    private static boolean sleep(long delayMs) {
+        try {
+            TimingProbe.sleep(delayMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Response execute(Method method, String endpoint, Object body) {
+        RequestSpecification request = given();
+        if (body instanceof byte[]) {
+            // Already serialized (e.g. by RecordReplay); body(Object) would encode it as a JSON string
+            request.contentType(ContentType.JSON).body((byte[]) body);
+        } else if (body != null) {
+            request.contentType(ContentType.JSON).body(body);
+        }
+        Response response = request.request(method, endpoint).then().extract().response();
+        // Buffer the body now: this releases the connection back to the pool even if the caller only reads the status
+        response.asByteArray();
+        return response;
+    }
+
+    private static Transport transport() {
+        PetStoreConfig config = ConfigManager.get();
+        Transport t = transport;
+        if (t == null || t.config != config) {
+            t = rebuild(config);
+        }
+        return t;
+    }
+
+    private static synchronized Transport rebuild(PetStoreConfig config) {
+        Transport previous = transport;
+        if (previous != null && previous.config == config) {
+            return previous;
+        }
+        boolean reuse = previous != null && !config.httpSettingsDiffer(previous.config);
+        CloseableHttpClient client = reuse ? previous.client : createHttpClient(config);
+        HttpClientConfig httpClientConfig = reuse ? previous.httpClientConfig : buildHttpClientConfig(client);
+
+        RequestSpecification spec = new RequestSpecBuilder()
+                .setBaseUri(config.getBaseUrl())
+                .addHeader("api_key", config.getApiKey())
+                .setConfig(RestAssuredConfig.config()
+                        .httpClient(httpClientConfig)
+                        .objectMapperConfig(JsonUtils.objectMapperConfig()))
+                .build();
+        transport = new Transport(config, client, httpClientConfig, spec);
+        if (previous != null && previous.client != client) {
+            retire(previous);
+        }
+        return transport;
+    }
+
+    // Requests that copied the old spec may still be using its pool, so give them the old timeouts to finish
+    private static void retire(Transport old) {
+        long graceMs = (long) old.config.getConnectTimeoutMs() + old.config.getReadTimeoutMs();
+        CompletableFuture.runAsync(() -> {
+            try {
+                old.client.close(); // shuts down its connection pool
+                logger.debug("Shut down the connection pool for {}", old.config.getBaseUrl());
+            } catch (IOException e) {
+                logger.warn("Could not shut down the connection pool for {}", old.config.getBaseUrl(), e);
+            }
+        }, CompletableFuture.delayedExecutor(graceMs, TimeUnit.MILLISECONDS));
+    }
+
+    private static HttpClientConfig buildHttpClientConfig(CloseableHttpClient client) {
+        return HttpClientConfig.httpClientConfig()
+                .httpClientFactory(() -> client)
+                .reuseHttpClientInstance();
+    }
+
+    /**
+     * Creates the pooled client RestAssured reuses, with the configured timeouts.
+     *
+     * <p>RestAssured 5.3 casts the client from its {@code httpClientFactory} to
+     * {@code AbstractHttpClient}, so one from {@code HttpClientBuilder} fails with a
+     * {@code GroovyCastException}. The deprecated {@link DefaultHttpClient} is the only
+     * client that fits, and its API stays inside this method.</p>
+     */
+    @SuppressWarnings("deprecation")
+    private static CloseableHttpClient createHttpClient(PetStoreConfig config) {
+        PoolingClientConnectionManager pool = new PoolingClientConnectionManager();
+        pool.setMaxTotal(config.getMaxConnections());
+        pool.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+
+        DefaultHttpClient client = new DefaultHttpClient(pool);
+        HttpParams params = client.getParams();
+        HttpConnectionParams.setConnectionTimeout(params, config.getConnectTimeoutMs());
+        HttpConnectionParams.setSoTimeout(params, config.getReadTimeoutMs());
+        params.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, config.getConnectTimeoutMs());
+        // Honour the server's Keep-Alive header; otherwise keep idle connections for the configured time
+        client.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? serverKeepAlive : config.getKeepAliveMs();
+        });
+        return client;
+    }
+
+    /**
+     * The retry budget and the settings it was built from.
+     */
+    private static class Budget {
+        private final PetStoreConfig config;
+        private final double ratio;
+        private final int minRetries;
+        private final RetryBudget retryBudget;
+
+        Budget(PetStoreConfig config, double ratio, int minRetries, RetryBudget retryBudget) {
+            this.config = config;
+            this.ratio = ratio;
+            this.minRetries = minRetries;
+            this.retryBudget = retryBudget;
+        }
+    }
+
+    /**
+     * The pre-built request state derived from one configuration snapshot.
+     */
+    private static class Transport {
+        private final PetStoreConfig config;
+        private final CloseableHttpClient client;
+        private final HttpClientConfig httpClientConfig;
+        private final RequestSpecification spec;
+
+        Transport(PetStoreConfig config, CloseableHttpClient client, HttpClientConfig httpClientConfig,
+                  RequestSpecification spec) {
+            this.config = config;
+            this.client = client;
+            this.httpClientConfig = httpClientConfig;
+            this.spec = spec;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.petstore.api;
+
+/**
+ * Thrown when a request fails without a response (e.g. connection refused) and retries did not help.
+ */
+public class ApiException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ApiException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,289 @@
+package com.petstore.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.ApiMetrics;
+import com.petstore.utils.JsonUtils;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AsyncApiClient is the non-blocking counterpart of {@link ApiClient}.
+ *
+ * <p>It sends requests with {@link java.net.http.HttpClient#sendAsync}, so no thread
+ * is parked while a request is in flight. Completed exchanges are adapted to
+ * RestAssured {@link Response} objects, so callers can use the same assertions and
+ * {@code response.as(Pet.class)} mapping as with the blocking client.</p>
+ *
+ * <p>In-flight requests are bounded by a semaphore sized from
+ * {@link ConfigManager#getAsyncMaxInFlight()}. When the limit is reached, the
+ * submitting thread blocks until a request completes. This is the backpressure: a
+ * step that fans out hundreds of requests is throttled to the limit instead of
+ * flooding the server.</p>
+ *
+ * <p>If a new configuration snapshot changes the connect timeout or the in-flight
+ * limit, a new client and limiter are created. Requests already in flight release
+ * their permit to the limiter they acquired it from.</p>
+ *
+ * <p>Requests follow the same {@link RetryPolicies}, {@link ApiClient#retryBudget()} and
+ * {@link ApiClient#circuitBreaker()} as the blocking client. A retry is scheduled on a
+ * delayed executor, so no thread sleeps during backoff. It then waits for its in-flight
+ * permit on one of the client's own retry threads, never on a common-pool thread that
+ * other asynchronous work depends on. If a rate limit is configured, an
+ * attempt that holds an in-flight permit waits for its {@link RequestScheduler} slot the same
+ * way before it is sent.</p>
+ *
+ * <p>Like {@link ApiClient}, it records to or replays from disk when
+ * {@code replay.mode} is set (see {@link RecordReplay}). GETs are not coalesced, but
+ * completed writes are reported to the {@link RequestCoalescer}.</p>
+ */
+public class AsyncApiClient {
+
+    private static volatile Transport transport;
+
+    // Retries block here while the in-flight limit is reached
+    private static final ExecutorService RETRIES = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "petstore-async-retry");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Sends a request asynchronously, blocking only while the in-flight limit is reached.
+     *
+     * @param method   HTTP method
+     * @param endpoint API endpoint relative to the base URL (e.g., "/pet/12345")
+     * @param body     Request body sent as JSON, or null for no body
+     * @return Future completed with the Response, or exceptionally on I/O failure
+     */
+    public static CompletableFuture<Response> send(Method method, String endpoint, Object body) {
+        return send(method, endpoint, body, RequestScheduler.Priority.NORMAL);
+    }
+
+    /**
+     * Sends a request asynchronously with the given scheduling priority.
+     *
+     * @param method   HTTP method
+     * @param endpoint API endpoint relative to the base URL (e.g., "/pet/12345")
+     * @param body     Request body sent as JSON, or null for no body
+     * @param priority Priority when a rate limit is configured (see {@link RequestScheduler})
+     * @return Future completed with the Response, or exceptionally on I/O failure
+     */
+    public static CompletableFuture<Response> send(Method method, String endpoint, Object body,
+                                                   RequestScheduler.Priority priority) {
+        CompletableFuture<Response> future = sendOrReplay(method, endpoint, body, priority);
+        if (method == Method.GET) {
+            return future;
+        }
+        // Keeps coalesced blocking GETs from sharing a response read before this write
+        return future.whenComplete((r, e) -> RequestCoalescer.onWrite(method, endpoint, body));
+    }
+
+    private static CompletableFuture<Response> sendOrReplay(Method method, String endpoint, Object body,
+                                                            RequestScheduler.Priority priority) {
+        if (!RecordReplay.isActive()) {
+            return sendWithRetry(method, endpoint, body, priority);
+        }
+        RecordReplay.Exchange exchange;
+        try {
+            exchange = RecordReplay.prepare(method, endpoint, body);
+            if (RecordReplay.isReplaying()) {
+                long start = System.nanoTime();
+                Response response = exchange.replay();
+                ApiMetrics.record(method.name(), endpoint, response.getStatusCode(), System.nanoTime() - start);
+                return CompletableFuture.completedFuture(response);
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendWithRetry(method, endpoint, exchange.getBody(), priority).thenApply(response -> {
+            exchange.record(response);
+            return response;
+        });
+    }
+
+    private static CompletableFuture<Response> sendWithRetry(Method method, String endpoint, Object body,
+                                                             RequestScheduler.Priority priority) {
+        RetryPolicy policy = RetryPolicies.forRequest(method, endpoint);
+        ApiClient.retryBudget().onRequest();
+        return attempt(method, endpoint, body, priority, policy, 1, System.nanoTime());
+    }
+
+    // One attempt; a retryable outcome schedules the next attempt on a delayed executor instead of sleeping
+    private static CompletableFuture<Response> attempt(Method method, String endpoint, Object body,
+                                                       RequestScheduler.Priority priority, RetryPolicy policy,
+                                                       int attempt, long start) {
+        return execute(method, endpoint, body, priority)
+                .handle((response, e) -> {
+                    Throwable failure = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    boolean retryable = failure != null
+                            ? !(failure instanceof CircuitOpenException) && policy.isRetryable(failure)
+                            : policy.isRetryable(response.getStatusCode());
+                    if (retryable && attempt < policy.getMaxAttempts()) {
+                        long delayMs = policy.backoffMs(attempt);
+                        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        if (elapsedMs + delayMs <= policy.getMaxElapsedMs() && ApiClient.retryBudget().tryAcquire()) {
+                            return CompletableFuture.supplyAsync(() -> null,
+                                            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, RETRIES))
+                                    .thenCompose(ignored -> attempt(method, endpoint, body, priority, policy,
+                                            attempt + 1, start));
+                        }
+                    }
+                    return failure != null
+                            ? CompletableFuture.<Response>failedFuture(failure)
+                            : CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(result -> result);
+    }
+
+    private static CompletableFuture<Response> execute(Method method, String endpoint, Object body,
+                                                       RequestScheduler.Priority priority) {
+        PetStoreConfig config = ConfigManager.get();
+        Transport t = transport(config);
+
+        HttpRequest request;
+        try {
+            request = buildRequest(config, method, endpoint, body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        try {
+            t.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // Capture the caller's scenario now; the response completes on an HttpClient thread
+        ApiMetrics.Capture capture = ApiMetrics.currentCapture();
+        // The permit is held while waiting for a rate limit slot, so the wait queue stays bounded too.
+        // It is released once, whichever stage fails or completes.
+        CompletableFuture<Response> future;
+        try {
+            future = RequestScheduler.acquireAsync(method, endpoint, priority)
+                    .thenCompose(admitted -> sendAdmitted(t, request, method, endpoint, capture));
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((r, e) -> t.inFlight.release());
+    }
+
+    // Sends a request that holds an in-flight permit and a rate limit slot
+    private static CompletableFuture<Response> sendAdmitted(Transport t, HttpRequest request, Method method,
+                                                           String endpoint, ApiMetrics.Capture capture) {
+        CircuitBreaker breaker = ApiClient.circuitBreaker();
+        long permit = breaker.acquirePermission();
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> future;
+        try {
+            future = t.client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            breaker.onFailure(permit);
+            throw e;
+        }
+        return future
+                .whenComplete((r, e) -> {
+                    if (r == null || r.statusCode() >= 500) {
+                        breaker.onFailure(permit);
+                    } else {
+                        breaker.onSuccess(permit);
+                    }
+                    ApiMetrics.record(method.name(), endpoint, r != null ? r.statusCode() : -1,
+                            System.nanoTime() - start, capture);
+                })
+                .thenApply(AsyncApiClient::toResponse);
+    }
+
+    private static Transport transport(PetStoreConfig config) {
+        Transport t = transport;
+        if (t != null && t.connectTimeoutMs == config.getConnectTimeoutMs()
+                && t.maxInFlight == config.getAsyncMaxInFlight()) {
+            return t;
+        }
+        synchronized (AsyncApiClient.class) {
+            t = transport;
+            if (t == null || t.connectTimeoutMs != config.getConnectTimeoutMs()
+                    || t.maxInFlight != config.getAsyncMaxInFlight()) {
+                t = new Transport(config.getConnectTimeoutMs(), config.getAsyncMaxInFlight());
+                transport = t;
+            }
+            return t;
+        }
+    }
+
+    private static HttpRequest buildRequest(PetStoreConfig config, Method method, String endpoint, Object body)
+            throws JsonProcessingException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(config.getBaseUrl() + endpoint))
+                .timeout(Duration.ofMillis(config.getReadTimeoutMs()))
+                .header("api_key", config.getApiKey())
+                .header("Accept", "application/json");
+
+        if (body != null) {
+            // Bodies already serialized (e.g. by RecordReplay) are sent as-is
+            byte[] json = body instanceof byte[] ? (byte[]) body : JsonUtils.mapper().writeValueAsBytes(body);
+            builder.header("Content-Type", "application/json")
+                    .method(method.name(), HttpRequest.BodyPublishers.ofByteArray(json));
+        } else {
+            builder.method(method.name(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    private static Response toResponse(HttpResponse<byte[]> httpResponse) {
+        List<Header> headers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : httpResponse.headers().map().entrySet()) {
+            for (String value : entry.getValue()) {
+                headers.add(new Header(entry.getKey(), value));
+            }
+        }
+
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(httpResponse.statusCode())
+                .setStatusLine("HTTP/1.1 " + httpResponse.statusCode())
+                .setHeaders(new Headers(headers))
+                .setBody(httpResponse.body());
+        httpResponse.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+        return JsonUtils.withSharedMapper(builder.build());
+    }
+
+    /**
+     * An HTTP client and in-flight limiter built for one set of settings.
+     */
+    private static class Transport {
+        private final int connectTimeoutMs;
+        private final int maxInFlight;
+        private final HttpClient client;
+        private final Semaphore inFlight;
+
+        Transport(int connectTimeoutMs, int maxInFlight) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.maxInFlight = maxInFlight;
+            this.client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .build();
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+    }
+}
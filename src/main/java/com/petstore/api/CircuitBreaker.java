@@ -0,0 +1,161 @@
+package com.petstore.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CircuitBreaker stops sending requests to an upstream that is clearly down.
+ *
+ * <p>It tracks the outcome of the last {@code windowSize} calls. A 5xx response or an
+ * I/O failure counts as a failure; any other response, including a 4xx, counts as a
+ * success. When at least {@code minCalls} outcomes are recorded and the failure rate
+ * reaches {@code failureRateThreshold}, the breaker opens. While it is open, every
+ * call fails immediately with {@link CircuitOpenException}.</p>
+ *
+ * <p>After {@code openMs}, the breaker is half-open and lets one probe request
+ * through. If the probe succeeds, the breaker closes and the window is cleared. If it
+ * fails, the breaker opens again for another {@code openMs}. Each call reports its outcome
+ * with the permit it was admitted with. The permit changes whenever the breaker changes
+ * state, so outcomes of calls admitted earlier are ignored and, while half-open, only the
+ * probe can close or reopen the breaker. Bookkeeping is a few field updates under a lock,
+ * negligible next to an HTTP call.</p>
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+
+    // Ring of recent outcomes: true = failure
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private boolean probeInFlight;
+    // Bumped on every state change; outcomes reported with an older permit are ignored
+    private long generation;
+
+    /**
+     * @param name                 Name used in messages (e.g., the base URL)
+     * @param windowSize           Number of recent calls considered
+     * @param minCalls             Calls required before the failure rate is evaluated
+     * @param failureRateThreshold Failure rate (0..1) that opens the breaker
+     * @param openMs               Time to stay open before a probe is allowed
+     */
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold, long openMs) {
+        this.name = name;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minCalls = Math.max(1, Math.min(minCalls, this.window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    /**
+     * Checks that a call may proceed.
+     *
+     * @return the permit to pass to {@link #onSuccess(long)} or {@link #onFailure(long)}
+     * @throws CircuitOpenException if the breaker is open, or half-open with a probe already in flight
+     */
+    public synchronized long acquirePermission() {
+        if (state == State.OPEN) {
+            long remaining = openUntil - System.nanoTime();
+            if (remaining > 0) {
+                throw new CircuitOpenException("Circuit open for " + name + ": " + failures + " of the last "
+                        + recorded + " calls failed; retrying in " + TimeUnit.NANOSECONDS.toMillis(remaining) + " ms");
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+            generation++;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                throw new CircuitOpenException("Circuit half-open for " + name + ": waiting for the probe request");
+            }
+            probeInFlight = true;
+        }
+        return generation;
+    }
+
+    /**
+     * Records a call that reached a healthy upstream.
+     *
+     * @param permit The value {@link #acquirePermission()} returned for the call
+     */
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            logger.info("Circuit for {} closed: probe request succeeded", name);
+            state = State.CLOSED;
+            generation++;
+            reset();
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * Records a 5xx response or an I/O failure.
+     *
+     * @param permit The value {@link #acquirePermission()} returned for the call
+     */
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minCalls && failures >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.nanoTime() + openNanos;
+        probeInFlight = false;
+        generation++;
+        logger.warn("Circuit for {} opened: {} of the last {} calls failed; failing fast for {} ms",
+                name, failures, recorded, TimeUnit.NANOSECONDS.toMillis(openNanos));
+    }
+
+    private void reset() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        probeInFlight = false;
+    }
+}
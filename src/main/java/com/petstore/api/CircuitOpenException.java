@@ -0,0 +1,13 @@
+package com.petstore.api;
+
+/**
+ * Thrown instead of sending a request while the {@link CircuitBreaker} is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,72 @@
+package com.petstore.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RateLimiter is a token bucket implemented as a generic cell rate algorithm (GCRA).
+ *
+ * <p>Instead of a token count refilled by a timer, the whole bucket is one number: the
+ * theoretical arrival time (TAT) of the next request if requests were sent exactly at
+ * the configured rate. A request is admitted when the TAT is at most {@code tolerance}
+ * ahead of now, and admitting it moves the TAT one emission interval ({@code 1 / rate})
+ * further. A tolerance of {@code (burst - 1)} intervals lets {@code burst} requests
+ * through back to back after an idle period, exactly like a bucket of that size.</p>
+ *
+ * <p>The TAT is a single AtomicLong updated by compare-and-set, so acquiring never
+ * takes a lock and costs about as much as an uncontended counter increment. Callers
+ * that are not admitted get the time until they would be and decide themselves
+ * whether to sleep or to reschedule.</p>
+ */
+public class RateLimiter {
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final long intervalNanos;
+
+    // Nothing booked yet: Math.max(tat, now) is always now
+    private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param ratePerSecond Sustained rate (must be positive)
+     * @param burst         Requests admitted back to back after an idle period (at least 1)
+     */
+    public RateLimiter(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + ratePerSecond);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+    }
+
+    /**
+     * Admits one request if the bucket allows it.
+     *
+     * @param now         Current {@link System#nanoTime()}
+     * @param extraBurst  Extra requests this caller may go over the normal burst (0 for normal traffic)
+     * @return 0 if admitted, otherwise the nanoseconds until the request would be admitted
+     */
+    public long tryAcquire(long now, int extraBurst) {
+        long tolerance = (burst - 1L + extraBurst) * intervalNanos;
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            long ahead = base - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (tat.compareAndSet(current, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+}
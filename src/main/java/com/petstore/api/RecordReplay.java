@@ -0,0 +1,311 @@
+package com.petstore.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.utils.IdGenerator;
+import com.petstore.utils.JsonUtils;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * RecordReplay records API exchanges to disk and serves them back without a network.
+ *
+ * <p>The mode comes from {@code replay.mode}:</p>
+ * <ul>
+ *   <li>{@code off} (default): requests go to the server as usual,</li>
+ *   <li>{@code record}: requests go to the server and every response is appended to
+ *   {@code replay.file},</li>
+ *   <li>{@code replay}: responses are served from a memory-mapped read of
+ *   {@code replay.file}, and no socket is opened.</li>
+ * </ul>
+ *
+ * <p>Pet IDs from {@link IdGenerator} differ on every run, so they are templated. The
+ * ID is replaced by a placeholder in the recorded path, request body and response
+ * body. On replay, the placeholder in the response is filled with the ID of the
+ * current request.</p>
+ *
+ * <p>A recording is keyed by method, templated path and a hash of the templated body.
+ * Requests that carry a generated ID are also keyed by the pet's lineage (the hash of
+ * the first body sent for that ID) and a per-ID sequence number. That way repeated
+ * GETs of the same pet before and after an update replay in order. A replay asking
+ * for a later sequence than was recorded gets the last recorded response.</p>
+ *
+ * <p>Other generated IDs in a response body, such as the pets in a findByStatus
+ * listing, are recorded as their origin: the lineage plus how many pets with that
+ * lineage were created before. On replay, each is filled with the ID this run gave
+ * the pet with the same origin. Pets with identical bodies are therefore told apart by
+ * creation order, which is only stable when scenarios run one at a time. An ID whose
+ * pet this run has not created keeps its recorded value and matches nothing.</p>
+ */
+public class RecordReplay {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordReplay.class);
+
+    private static final String PLACEHOLDER = "{{id}}";
+    private static final Pattern NUMBER = Pattern.compile("(?<![0-9])[0-9]{10,19}(?![0-9])");
+    // {{id:origin:recorded ID}} for a generated ID other than the request's own
+    private static final Pattern ORIGIN = Pattern.compile("\\{\\{id:([0-9a-f]+#[0-9]+):([0-9]+)}}");
+
+    // Per generated ID: lineage, origin and request sequence numbers
+    private static final Map<Long, IdState> IDS = new ConcurrentHashMap<>();
+    // Pets created so far per lineage, and the ID each origin got in this run
+    private static final Map<String, AtomicInteger> LINEAGE_COUNTS = new ConcurrentHashMap<>();
+    private static final Map<String, Long> IDS_BY_ORIGIN = new ConcurrentHashMap<>();
+    // Sequence numbers for requests without a generated ID
+    private static final Map<String, AtomicInteger> SHARED_SEQUENCES = new ConcurrentHashMap<>();
+
+    private static volatile ReplayStore.Writer writer;
+    private static volatile ReplayStore.Reader reader;
+
+    /**
+     * Returns true unless {@code replay.mode} is "off".
+     */
+    public static boolean isActive() {
+        return !"off".equals(mode(ConfigManager.get()));
+    }
+
+    /**
+     * Returns true if responses are served from the recording.
+     */
+    public static boolean isReplaying() {
+        return "replay".equals(mode(ConfigManager.get()));
+    }
+
+    /**
+     * Prepares an exchange: serializes the body and derives its recording key.
+     *
+     * @param method   HTTP method
+     * @param endpoint API endpoint relative to the base URL
+     * @param body     Request body, or null
+     * @return Exchange to replay or to send and record
+     */
+    public static Exchange prepare(Method method, String endpoint, Object body) {
+        byte[] bodyBytes = serialize(body);
+        String bodyText = bodyBytes == null ? "" : new String(bodyBytes, StandardCharsets.UTF_8);
+
+        Long id = findIssuedId(endpoint);
+        if (id == null) {
+            id = findIssuedId(bodyText);
+        }
+
+        String path = id == null ? endpoint : template(endpoint, id);
+        String templatedBody = id == null ? bodyText : template(bodyText, id);
+        String key = method.name() + ' ' + path + ' ' + hash(templatedBody);
+
+        int sequence;
+        if (id != null) {
+            String lineage = hash(templatedBody);
+            IdState state = IDS.computeIfAbsent(id, k -> newIdState(k, lineage));
+            key = key + ' ' + state.lineage;
+            sequence = state.next(key);
+        } else {
+            sequence = SHARED_SEQUENCES.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        }
+        return new Exchange(bodyBytes, id, key, sequence);
+    }
+
+    private static IdState newIdState(long id, String lineage) {
+        int created = LINEAGE_COUNTS.computeIfAbsent(lineage, k -> new AtomicInteger()).getAndIncrement();
+        String origin = lineage + '#' + created;
+        IDS_BY_ORIGIN.put(origin, id);
+        return new IdState(lineage, origin);
+    }
+
+    private static String mode(PetStoreConfig config) {
+        return config.getString("replay.mode");
+    }
+
+    private static byte[] serialize(Object body) {
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        if (body instanceof String) {
+            return ((String) body).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return JsonUtils.mapper().writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body cannot be serialized: " + e.getMessage(), e);
+        }
+    }
+
+    private static Long findIssuedId(String text) {
+        Matcher matcher = NUMBER.matcher(text);
+        while (matcher.find()) {
+            long candidate = Long.parseLong(matcher.group());
+            if (IdGenerator.isIssued(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String template(String text, long id) {
+        return text.replace(Long.toString(id), PLACEHOLDER);
+    }
+
+    // Replaces generated IDs this run has sent requests for with their origin
+    private static String templateOrigins(String text) {
+        Matcher matcher = NUMBER.matcher(text);
+        StringBuilder out = new StringBuilder(text.length());
+        while (matcher.find()) {
+            IdState state = IDS.get(Long.parseLong(matcher.group()));
+            String replacement = state == null ? matcher.group() : "{{id:" + state.origin + ':' + matcher.group() + "}}";
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        return matcher.appendTail(out).toString();
+    }
+
+    // Fills each origin with the ID this run gave that pet, or the recorded ID if it has none
+    private static String fillOrigins(String text) {
+        if (!text.contains("{{id:")) {
+            return text;
+        }
+        Matcher matcher = ORIGIN.matcher(text);
+        StringBuilder out = new StringBuilder(text.length());
+        while (matcher.find()) {
+            Long id = IDS_BY_ORIGIN.get(matcher.group(1));
+            matcher.appendReplacement(out, id == null ? matcher.group(2) : Long.toString(id));
+        }
+        return matcher.appendTail(out).toString();
+    }
+
+    private static String hash(String text) {
+        CRC32C crc = new CRC32C();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static ReplayStore.Writer writer() {
+        ReplayStore.Writer w = writer;
+        if (w == null) {
+            synchronized (RecordReplay.class) {
+                w = writer;
+                if (w == null) {
+                    Path file = file();
+                    w = new ReplayStore.Writer(file);
+                    writer = w;
+                    logger.info("Recording API responses to {}", file);
+                }
+            }
+        }
+        return w;
+    }
+
+    private static ReplayStore.Reader reader() {
+        ReplayStore.Reader r = reader;
+        if (r == null) {
+            synchronized (RecordReplay.class) {
+                r = reader;
+                if (r == null) {
+                    Path file = file();
+                    r = new ReplayStore.Reader(file);
+                    reader = r;
+                    logger.info("Replaying {} recorded API responses from {}", r.size(), file);
+                }
+            }
+        }
+        return r;
+    }
+
+    private static Path file() {
+        return Paths.get(ConfigManager.get().getString("replay.file")).toAbsolutePath();
+    }
+
+    /**
+     * One request, ready to be replayed or sent and recorded.
+     */
+    public static class Exchange {
+        private final byte[] body;
+        private final Long id;
+        private final String key;
+        private final int sequence;
+
+        Exchange(byte[] body, Long id, String key, int sequence) {
+            this.body = body;
+            this.id = id;
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Returns the serialized request body to send, or null for no body.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * Builds the recorded response for this request.
+         * Throws IllegalStateException if nothing matching was recorded.
+         */
+        public Response replay() {
+            ReplayStore.Entry entry = reader().find(key, sequence);
+            if (entry == null) {
+                throw new IllegalStateException("No recorded response for " + key
+                        + " in " + file() + "; record it again with -Dreplay.mode=record");
+            }
+            String text = new String(entry.body, StandardCharsets.UTF_8);
+            if (id != null) {
+                text = text.replace(PLACEHOLDER, Long.toString(id));
+            }
+            byte[] responseBody = fillOrigins(text).getBytes(StandardCharsets.UTF_8);
+            ResponseBuilder builder = new ResponseBuilder()
+                    .setStatusCode(entry.status)
+                    .setStatusLine("HTTP/1.1 " + entry.status)
+                    .setBody(responseBody);
+            if (!entry.contentType.isEmpty()) {
+                builder.setContentType(entry.contentType);
+            }
+            return JsonUtils.withSharedMapper(builder.build());
+        }
+
+        /**
+         * Appends the live response for this request to the recording.
+         */
+        public void record(Response response) {
+            String text = new String(response.asByteArray(), StandardCharsets.UTF_8);
+            if (id != null) {
+                text = template(text, id);
+            }
+            byte[] responseBody = templateOrigins(text).getBytes(StandardCharsets.UTF_8);
+            String contentType = response.getContentType() == null ? "" : response.getContentType();
+            writer().append(key, sequence, new ReplayStore.Entry(response.getStatusCode(), contentType, responseBody));
+        }
+    }
+
+    /**
+     * Lineage, origin and per-key request counters of one generated pet ID.
+     */
+    private static class IdState {
+        private final String lineage;
+        private final String origin;
+        private final Map<String, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+        IdState(String lineage, String origin) {
+            this.lineage = lineage;
+            this.origin = origin;
+        }
+
+        int next(String key) {
+            return sequences.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        }
+    }
+}
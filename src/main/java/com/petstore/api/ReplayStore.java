@@ -0,0 +1,203 @@
+package com.petstore.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ReplayStore is the on-disk format behind {@link RecordReplay}: an append-only file
+ * of recorded responses.
+ *
+ * <p>Layout (big-endian):</p>
+ * <pre>
+ *   header  int magic "PSRP", short version
+ *   entry   int keyLength, key (UTF-8), int sequence,
+ *           int status, short contentTypeLength, content type (UTF-8),
+ *           int bodyLength, body
+ * </pre>
+ *
+ * <p>A writer only ever appends, so an interrupted recording loses at most its last,
+ * partial entry, which the reader skips. A reader maps the file read-only and
+ * builds an in-memory index from key and sequence to entry offset in a single pass.
+ * Bodies are copied out of the mapping only when they are requested.</p>
+ */
+class ReplayStore {
+
+    private static final int MAGIC = 0x50535250; // "PSRP"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 6;
+
+    /**
+     * One recorded response.
+     */
+    static class Entry {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        Entry(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Appends entries to a new recording. Safe for concurrent use.
+     */
+    static class Writer {
+        private final FileChannel channel;
+        private final Set<String> written = ConcurrentHashMap.newKeySet();
+
+        Writer(Path file) {
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION);
+                header.flip();
+                write(header);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create recording " + file, e);
+            }
+        }
+
+        /**
+         * Appends an entry unless the same key and sequence was already recorded.
+         */
+        void append(String key, int sequence, Entry entry) {
+            if (!written.add(key + '#' + sequence)) {
+                return;
+            }
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            byte[] contentType = entry.contentType.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(4 + keyBytes.length + 4 + 4 + 2 + contentType.length
+                    + 4 + entry.body.length);
+            buffer.putInt(keyBytes.length).put(keyBytes).putInt(sequence)
+                    .putInt(entry.status).putShort((short) contentType.length).put(contentType)
+                    .putInt(entry.body.length).put(entry.body);
+            buffer.flip();
+            try {
+                write(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to append to recording", e);
+            }
+        }
+
+        private synchronized void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Serves entries from a memory-mapped recording. Safe for concurrent use.
+     */
+    static class Reader {
+        private final MappedByteBuffer mapped;
+        // key -> (sequence -> entry offset)
+        private final Map<String, TreeMap<Integer, Integer>> index = new HashMap<>();
+
+        Reader(Path file) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open recording " + file, e);
+            }
+            if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getShort(4) != VERSION) {
+                throw new IllegalStateException(file + " is not a PetStore recording (version " + VERSION + ")");
+            }
+            buildIndex();
+        }
+
+        /**
+         * Returns the entry recorded for the key at this sequence, or the closest earlier one.
+         *
+         * @return Entry, or null if nothing was recorded for the key
+         */
+        Entry find(String key, int sequence) {
+            TreeMap<Integer, Integer> sequences = index.get(key);
+            if (sequences == null) {
+                return null;
+            }
+            Map.Entry<Integer, Integer> match = sequences.floorEntry(sequence);
+            return read(match != null ? match.getValue() : sequences.firstEntry().getValue());
+        }
+
+        int size() {
+            int size = 0;
+            for (TreeMap<Integer, Integer> sequences : index.values()) {
+                size += sequences.size();
+            }
+            return size;
+        }
+
+        private void buildIndex() {
+            int offset = HEADER_BYTES;
+            int limit = mapped.limit();
+            while (offset + 4 <= limit) {
+                int entryStart = offset;
+                int keyLength = mapped.getInt(offset);
+                // Fixed-size fields after the key: sequence, status, content type length
+                if (keyLength < 0 || offset + 4 + keyLength + 10 > limit) {
+                    break;
+                }
+                String key = string(offset + 4, keyLength);
+                offset += 4 + keyLength;
+                int sequence = mapped.getInt(offset);
+                offset += 8; // sequence, status
+                int contentTypeLength = mapped.getShort(offset);
+                offset += 2 + contentTypeLength;
+                if (offset + 4 > limit) {
+                    break;
+                }
+                int bodyLength = mapped.getInt(offset);
+                offset += 4;
+                if (bodyLength < 0 || offset + bodyLength > limit) {
+                    break; // partial trailing entry from an interrupted recording
+                }
+                offset += bodyLength;
+                index.computeIfAbsent(key, k -> new TreeMap<>()).putIfAbsent(sequence, entryStart);
+            }
+        }
+
+        private Entry read(int offset) {
+            int keyLength = mapped.getInt(offset);
+            offset += 4 + keyLength + 4;
+            int status = mapped.getInt(offset);
+            offset += 4;
+            int contentTypeLength = mapped.getShort(offset);
+            String contentType = string(offset + 2, contentTypeLength);
+            offset += 2 + contentTypeLength;
+            int bodyLength = mapped.getInt(offset);
+            byte[] body = new byte[bodyLength];
+            // Absolute reads on a duplicate: the shared buffer's position is never touched
+            ByteBuffer view = mapped.duplicate();
+            view.position(offset + 4);
+            view.get(body);
+            return new Entry(status, contentType, body);
+        }
+
+        private String string(int offset, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer view = mapped.duplicate();
+            view.position(offset);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.petstore.api;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.EndpointNormalizer;
+import com.petstore.metrics.TimingProbe;
+import com.petstore.models.Pet;
+import com.petstore.utils.JsonUtils;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Headers;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * RequestCoalescer de-duplicates identical GET requests sent through {@link ApiClient}.
+ *
+ * <p>While a GET for a URL is in flight, other threads asking for the same URL wait for
+ * it and get a copy of its response instead of sending their own request
+ * (single-flight). With {@code coalesce.cacheTtlMs} above 0, a response is also served
+ * from memory for that long after it arrived; the cache is off by default.</p>
+ *
+ * <p>Writes keep reads honest. Every completed POST, PUT or DELETE advances a logical
+ * clock and stamps the URLs it may have changed: {@code /pet/{id}} of the pet written
+ * (taken from the path or the {@link Pet} body) and every other GET URL, such as
+ * {@code /pet/findByStatus}. A write whose pet cannot be told stamps every URL. An
+ * in-flight request or cached response is only shared if it was sent after the last
+ * write stamped on its URL. A scenario that reads after its own write therefore never
+ * sees a response older than that write.</p>
+ *
+ * <p>Coalescing is on by default ({@code coalesce.enabled}) and off while
+ * {@code replay.mode} is set, so recordings keep one exchange per call.</p>
+ */
+public class RequestCoalescer {
+
+    private static final String PET_PATH = "/pet/{id}";
+
+    private static final Map<String, Flight> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private static final Map<String, Flight> CACHE = new ConcurrentHashMap<>();
+
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+    // Logical clock of completed writes; a flight remembers the tick it was sent at
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    // Last write tick per pet URL ("/pet/123"), bounded by coalesce.trackedWrites
+    private static final Map<String, Long> PET_WRITES = new ConcurrentHashMap<>();
+
+    // Last write to any pet, for list URLs such as /pet/findByStatus
+    private static volatile long listWriteTick;
+
+    // Last write whose target is unknown; invalidates every URL
+    private static volatile long globalWriteTick;
+
+    /**
+     * Returns true if GETs are coalesced under the current configuration.
+     */
+    public static boolean isEnabled() {
+        return ConfigManager.get().getBoolean("coalesce.enabled") && !RecordReplay.isActive();
+    }
+
+    /**
+     * Sends a GET through the coalescer. Joins an identical in-flight request or uses a
+     * fresh cached response when possible, otherwise sends it with {@code call}.
+     *
+     * @param endpoint API endpoint relative to the base URL (e.g., "/pet/12345")
+     * @param call     Sends the request; called at most once, on the calling thread
+     * @return The caller's own copy of the response
+     */
+    public static Response get(String endpoint, Supplier<Response> call) {
+        PetStoreConfig config = ConfigManager.get();
+        String url = config.getBaseUrl() + endpoint;
+        Stats stats = STATS.computeIfAbsent(EndpointNormalizer.key("GET", endpoint), k -> new Stats());
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(config.getLong("coalesce.cacheTtlMs"));
+
+        while (true) {
+            long lastWrite = lastWriteTick(endpoint);
+            if (ttlNanos > 0) {
+                Flight cached = CACHE.get(url);
+                if (cached != null && cached.isFresh(lastWrite, ttlNanos)) {
+                    stats.cached.increment();
+                    return cached.future.join().toResponse();
+                }
+            }
+
+            Flight flight = new Flight(CLOCK.get());
+            Flight existing = IN_FLIGHT.putIfAbsent(url, flight);
+            if (existing == null) {
+                stats.sent.increment();
+                return lead(url, flight, call, ttlNanos, config.getInt("coalesce.cacheMaxEntries"));
+            }
+            if (existing.sentAtTick >= lastWrite) {
+                stats.joined.increment();
+                return join(existing).toResponse();
+            }
+            // The in-flight request predates a write to this URL: wait for it to finish, then send a new one
+            existing.future.handle((r, e) -> null).join();
+        }
+    }
+
+    /**
+     * Records a completed write so no response read before it is shared afterwards.
+     * Called by both transports for every POST, PUT and DELETE, successful or not.
+     *
+     * @param method   HTTP method of the write
+     * @param endpoint API endpoint relative to the base URL
+     * @param body     Request body, used to find the written pet
+     */
+    public static void onWrite(Method method, String endpoint, Object body) {
+        if (method == Method.GET || method == Method.HEAD || method == Method.OPTIONS) {
+            return;
+        }
+        long tick = CLOCK.incrementAndGet();
+        String petUrl = petUrl(endpoint, body);
+        if (petUrl == null) {
+            globalWriteTick = tick;
+            CACHE.clear();
+            return;
+        }
+        if (PET_WRITES.size() >= ConfigManager.get().getInt("coalesce.trackedWrites")) {
+            // Forget per-pet history behind one conservative global stamp, published first
+            globalWriteTick = tick;
+            PET_WRITES.clear();
+            CACHE.clear();
+        }
+        PET_WRITES.merge(petUrl, tick, Math::max);
+        listWriteTick = tick;
+    }
+
+    /**
+     * Returns, per endpoint, how many GETs were sent, joined an in-flight request or were
+     * served from the cache, and the share that did not reach the server.
+     */
+    public static Map<String, Map<String, Object>> summary() {
+        Map<String, Map<String, Object>> summary = new TreeMap<>();
+        STATS.forEach((key, stats) -> {
+            long sent = stats.sent.sum();
+            long joined = stats.joined.sum();
+            long cached = stats.cached.sum();
+            long total = sent + joined + cached;
+            Map<String, Object> row = new TreeMap<>();
+            row.put("sent", sent);
+            row.put("joined", joined);
+            row.put("cached", cached);
+            row.put("savedRatio", total == 0 ? 0.0 : (double) (joined + cached) / total);
+            summary.put(key, row);
+        });
+        return summary;
+    }
+
+    /**
+     * Formats {@link #summary()} as a fixed-width table.
+     */
+    public static String toTable(Map<String, Map<String, Object>> summary) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %9s %9s %9s %8s%n", "endpoint", "sent", "joined", "cached", "saved"));
+        summary.forEach((key, row) -> sb.append(String.format("%-28s %9d %9d %9d %7.1f%%%n", key,
+                row.get("sent"), row.get("joined"), row.get("cached"), 100 * (double) row.get("savedRatio"))));
+        return sb.toString();
+    }
+
+    /**
+     * Drops cached responses and clears the statistics.
+     */
+    public static void reset() {
+        CACHE.clear();
+        STATS.clear();
+    }
+
+    // Sends the request for everyone waiting on this flight, then publishes or caches the result
+    private static Response lead(String url, Flight flight, Supplier<Response> call, long ttlNanos, int maxEntries) {
+        Response response;
+        try {
+            response = call.get();
+        } catch (RuntimeException | Error e) {
+            IN_FLIGHT.remove(url, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+        flight.receivedAtNanos = System.nanoTime();
+        flight.future.complete(new Snapshot(response));
+        IN_FLIGHT.remove(url, flight);
+        if (ttlNanos > 0 && response.getStatusCode() < 500) {
+            if (CACHE.size() >= maxEntries) {
+                CACHE.clear();
+            }
+            CACHE.put(url, flight);
+        }
+        return response;
+    }
+
+    private static Snapshot join(Flight flight) {
+        try {
+            return TimingProbe.joinHttp(flight.future);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static long lastWriteTick(String endpoint) {
+        long scoped;
+        if (PET_PATH.equals(EndpointNormalizer.normalize(endpoint))) {
+            scoped = PET_WRITES.getOrDefault(stripQuery(endpoint), 0L);
+        } else {
+            scoped = listWriteTick;
+        }
+        return Math.max(scoped, globalWriteTick);
+    }
+
+    // "/pet/123" for DELETE /pet/123 and for POST/PUT /pet with a Pet body; null if unknown
+    private static String petUrl(String endpoint, Object body) {
+        String path = stripQuery(endpoint);
+        if (PET_PATH.equals(EndpointNormalizer.normalize(path))) {
+            return path;
+        }
+        if ("/pet".equals(path) && body instanceof Pet && ((Pet) body).getId() != null) {
+            return "/pet/" + ((Pet) body).getId();
+        }
+        return null;
+    }
+
+    private static String stripQuery(String endpoint) {
+        int q = endpoint.indexOf('?');
+        return q < 0 ? endpoint : endpoint.substring(0, q);
+    }
+
+    /**
+     * One GET sent on behalf of every caller that joins it.
+     */
+    private static class Flight {
+        private final long sentAtTick;
+        private final CompletableFuture<Snapshot> future = new CompletableFuture<>();
+        private volatile long receivedAtNanos;
+
+        Flight(long sentAtTick) {
+            this.sentAtTick = sentAtTick;
+        }
+
+        boolean isFresh(long lastWriteTick, long ttlNanos) {
+            return sentAtTick >= lastWriteTick && System.nanoTime() - receivedAtNanos < ttlNanos;
+        }
+    }
+
+    /**
+     * Immutable copy of a response, taken by the sending thread before it is shared.
+     * Every other caller gets its own Response built from it, so nobody shares
+     * RestAssured's lazily parsed body state.
+     */
+    private static class Snapshot {
+        private final int status;
+        private final String statusLine;
+        private final Headers headers;
+        private final String contentType;
+        private final byte[] body;
+
+        Snapshot(Response response) {
+            this.status = response.getStatusCode();
+            this.statusLine = response.getStatusLine();
+            this.headers = response.getHeaders();
+            this.contentType = response.getContentType();
+            this.body = response.asByteArray();
+        }
+
+        Response toResponse() {
+            ResponseBuilder builder = new ResponseBuilder()
+                    .setStatusCode(status)
+                    .setStatusLine(statusLine)
+                    .setHeaders(headers)
+                    .setBody(body);
+            if (contentType != null && !contentType.isEmpty()) {
+                builder.setContentType(contentType);
+            }
+            return JsonUtils.withSharedMapper(builder.build());
+        }
+    }
+
+    private static class Stats {
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder joined = new LongAdder();
+        private final LongAdder cached = new LongAdder();
+    }
+}
@@ -0,0 +1,299 @@
+package com.petstore.api;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.EndpointNormalizer;
+import com.petstore.metrics.TimingProbe;
+import io.restassured.http.Method;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestScheduler paces requests to a configured rate before they reach the transports.
+ *
+ * <p>Both {@link ApiClient} and {@link AsyncApiClient} ask it for a slot before every
+ * attempt, retries included. A request needs a slot from its endpoint's
+ * {@link RateLimiter} (keyed like the metrics, e.g. {@code GET /pet/{id}}) and then
+ * from the global one. Rates are set with:</p>
+ * <ul>
+ *   <li>{@code ratelimit.ratePerSecond}: all requests together,</li>
+ *   <li>{@code ratelimit.endpointRatePerSecond}: each endpoint,</li>
+ *   <li>{@code ratelimit.endpointRates}: per-endpoint exceptions, e.g.
+ *   {@code GET /pet/findByStatus=2,POST /pet=20},</li>
+ *   <li>{@code ratelimit.burst}: requests admitted back to back after an idle period.</li>
+ * </ul>
+ * <p>A rate of 0 means unlimited, which is the default, so nothing is paced unless a
+ * rate is configured.</p>
+ *
+ * <p>Requests with {@link Priority#CLEANUP} (fixture deletes from teardown) may go
+ * {@code ratelimit.cleanupReserve} requests over the burst. While normal traffic is
+ * waiting for the bucket, a cleanup request is therefore admitted first, yet the
+ * sustained rate still holds for both together.</p>
+ *
+ * <p>The blocking client sleeps until its slot (counted as wait time by
+ * {@link TimingProbe}); the async client schedules the send on a delayed executor, so
+ * no thread is parked. Limiters are lock-free and one per endpoint, so concurrent
+ * callers only contend on the one compare-and-set of the global limiter.</p>
+ */
+public class RequestScheduler {
+
+    /**
+     * Scheduling priority of a request.
+     */
+    public enum Priority { NORMAL, CLEANUP }
+
+    private static final CompletableFuture<Void> ADMITTED = CompletableFuture.completedFuture(null);
+
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+    private static volatile Limits limits;
+
+    /**
+     * Blocks until the request may be sent.
+     *
+     * @throws InterruptedException if interrupted while waiting; the request must not be sent
+     */
+    public static void acquire(Method method, String endpoint, Priority priority) throws InterruptedException {
+        Limits l = limits();
+        if (!l.enabled) {
+            return;
+        }
+        Ticket ticket = new Ticket(l, EndpointNormalizer.key(method.name(), endpoint), priority);
+        long start = System.nanoTime();
+        long waitNanos;
+        while ((waitNanos = ticket.tryAdmit()) > 0) {
+            long sleepStart = System.nanoTime();
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } finally {
+                TimingProbe.addWait(System.nanoTime() - sleepStart);
+            }
+        }
+        ticket.done(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns a future completed when the request may be sent, without blocking the caller.
+     */
+    public static CompletableFuture<Void> acquireAsync(Method method, String endpoint, Priority priority) {
+        Limits l = limits();
+        if (!l.enabled) {
+            return ADMITTED;
+        }
+        Ticket ticket = new Ticket(l, EndpointNormalizer.key(method.name(), endpoint), priority);
+        return admitAsync(ticket, System.nanoTime());
+    }
+
+    private static CompletableFuture<Void> admitAsync(Ticket ticket, long start) {
+        long waitNanos = ticket.tryAdmit();
+        if (waitNanos <= 0) {
+            ticket.done(System.nanoTime() - start);
+            return ADMITTED;
+        }
+        return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> admitAsync(ticket, start));
+    }
+
+    /**
+     * Returns true if any rate is configured.
+     */
+    public static boolean isEnabled() {
+        return limits().enabled;
+    }
+
+    /**
+     * Returns, per endpoint, how many requests were admitted, how many had to wait and
+     * for how long in total, and the mean wait of those that waited.
+     */
+    public static Map<String, Map<String, Object>> summary() {
+        Map<String, Map<String, Object>> summary = new TreeMap<>();
+        STATS.forEach((key, stats) -> {
+            long admitted = stats.admitted.sum();
+            long delayed = stats.delayed.sum();
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(stats.waitNanos.sum());
+            Map<String, Object> row = new TreeMap<>();
+            row.put("admitted", admitted);
+            row.put("delayed", delayed);
+            row.put("waitMs", waitMs);
+            row.put("meanWaitMs", delayed == 0 ? 0.0 : (double) waitMs / delayed);
+            summary.put(key, row);
+        });
+        return summary;
+    }
+
+    /**
+     * Formats {@link #summary()} as a fixed-width table.
+     */
+    public static String toTable(Map<String, Map<String, Object>> summary) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %9s %9s %10s %12s%n", "endpoint", "admitted", "delayed", "wait ms", "mean wait"));
+        summary.forEach((key, row) -> sb.append(String.format("%-28s %9d %9d %10d %12.2f%n", key,
+                row.get("admitted"), row.get("delayed"), row.get("waitMs"), row.get("meanWaitMs"))));
+        return sb.toString();
+    }
+
+    /**
+     * Clears the statistics (limiter state is kept).
+     */
+    public static void reset() {
+        STATS.clear();
+    }
+
+    private static Limits limits() {
+        PetStoreConfig config = ConfigManager.get();
+        Limits l = limits;
+        if (l == null || l.config != config) {
+            l = rebuild(config);
+        }
+        return l;
+    }
+
+    private static synchronized Limits rebuild(PetStoreConfig config) {
+        Limits previous = limits;
+        if (previous != null && previous.config == config) {
+            return previous;
+        }
+        Limits next = new Limits(config);
+        // A new snapshot with the same rates (e.g. a base URL override) keeps the buckets' state
+        limits = previous != null && previous.signature.equals(next.signature) ? previous.withConfig(config) : next;
+        return limits;
+    }
+
+    /**
+     * One request's progress through its endpoint limiter and the global limiter.
+     * The endpoint slot is kept while waiting for the global one, so it is never taken twice.
+     */
+    private static class Ticket {
+        private final Limits limits;
+        private final String key;
+        private final int extraBurst;
+        private final RateLimiter endpointLimiter;
+        private boolean endpointAdmitted;
+        private boolean delayed;
+
+        Ticket(Limits limits, String key, Priority priority) {
+            this.limits = limits;
+            this.key = key;
+            this.extraBurst = priority == Priority.CLEANUP ? limits.cleanupReserve : 0;
+            this.endpointLimiter = limits.endpoint(key);
+        }
+
+        // 0 once admitted by both limiters, otherwise the nanoseconds to wait before trying again
+        long tryAdmit() {
+            long now = System.nanoTime();
+            if (!endpointAdmitted) {
+                long wait = endpointLimiter == null ? 0 : endpointLimiter.tryAcquire(now, extraBurst);
+                if (wait > 0) {
+                    delayed = true;
+                    return wait;
+                }
+                endpointAdmitted = true;
+            }
+            long wait = limits.global == null ? 0 : limits.global.tryAcquire(now, extraBurst);
+            if (wait > 0) {
+                delayed = true;
+            }
+            return wait;
+        }
+
+        void done(long waitedNanos) {
+            Stats stats = STATS.computeIfAbsent(key, k -> new Stats());
+            stats.admitted.increment();
+            if (delayed) {
+                stats.delayed.increment();
+                stats.waitNanos.add(waitedNanos);
+            }
+        }
+    }
+
+    private static class Stats {
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder delayed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+    }
+
+    /**
+     * The limiters built for one set of rate settings.
+     */
+    private static class Limits {
+        private final PetStoreConfig config;
+        private final String signature;
+        private final boolean enabled;
+        private final int burst;
+        private final int cleanupReserve;
+        private final RateLimiter global;
+        private final double endpointRate;
+        private final Map<String, Double> endpointRates;
+        private final Map<String, RateLimiter> endpoints;
+
+        Limits(PetStoreConfig config) {
+            this.config = config;
+            double globalRate = config.getDouble("ratelimit.ratePerSecond");
+            this.burst = config.getInt("ratelimit.burst");
+            this.cleanupReserve = config.getInt("ratelimit.cleanupReserve");
+            this.endpointRate = config.getDouble("ratelimit.endpointRatePerSecond");
+            this.endpointRates = parseRates(config.getString("ratelimit.endpointRates", ""));
+            this.global = globalRate > 0 ? new RateLimiter(globalRate, burst) : null;
+            this.endpoints = new ConcurrentHashMap<>();
+            this.enabled = global != null || endpointRate > 0 || endpointRates.values().stream().anyMatch(r -> r > 0);
+            this.signature = globalRate + "|" + burst + "|" + cleanupReserve + "|" + endpointRate + "|" + endpointRates;
+        }
+
+        private Limits(Limits previous, PetStoreConfig config) {
+            this.config = config;
+            this.signature = previous.signature;
+            this.enabled = previous.enabled;
+            this.burst = previous.burst;
+            this.cleanupReserve = previous.cleanupReserve;
+            this.global = previous.global;
+            this.endpointRate = previous.endpointRate;
+            this.endpointRates = previous.endpointRates;
+            this.endpoints = previous.endpoints;
+        }
+
+        Limits withConfig(PetStoreConfig config) {
+            return new Limits(this, config);
+        }
+
+        // Null if the endpoint is unlimited
+        RateLimiter endpoint(String key) {
+            double rate = endpointRates.getOrDefault(key, endpointRate);
+            if (rate <= 0) {
+                return null;
+            }
+            return endpoints.computeIfAbsent(key, k -> new RateLimiter(rate, burst));
+        }
+
+        // "GET /pet/findByStatus=2, POST /pet=20" -> {GET /pet/findByStatus=2.0, POST /pet=20.0}
+        private static Map<String, Double> parseRates(String spec) {
+            Map<String, Double> rates = new TreeMap<>();
+            for (String entry : spec.split(",")) {
+                if (entry.isBlank()) {
+                    continue;
+                }
+                int eq = entry.lastIndexOf('=');
+                if (eq < 0) {
+                    throw new IllegalStateException("Invalid ratelimit.endpointRates entry '" + entry.trim()
+                            + "', expected e.g. 'GET /pet/{id}=10'");
+                }
+                String[] parts = entry.substring(0, eq).trim().split("\\s+", 2);
+                String key = parts.length == 2
+                        ? EndpointNormalizer.key(parts[0].toUpperCase(), parts[1])
+                        : entry.substring(0, eq).trim();
+                try {
+                    rates.put(key, Double.parseDouble(entry.substring(eq + 1).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalStateException("Invalid rate in ratelimit.endpointRates entry '"
+                            + entry.trim() + "'", e);
+                }
+            }
+            return rates;
+        }
+    }
+}
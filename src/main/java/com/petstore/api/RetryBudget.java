@@ -0,0 +1,64 @@
+package com.petstore.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RetryBudget caps retries to a fraction of the traffic, across all threads.
+ *
+ * <p>Every first attempt deposits {@code ratio} of a token, and every retry spends one
+ * whole token. The balance starts full at {@code minRetries} tokens and deposits never
+ * raise it above that, so at most {@code minRetries} retries can be spent in a burst.
+ * Once that is used up, retries are limited to what new traffic deposits: with a ratio
+ * of 0.2, retries add at most about 20% to the load. When the upstream is degraded and every call fails, the suite therefore
+ * stops retrying after the budget is spent instead of multiplying the load by the
+ * attempt count. Tokens are counted in thousandths in a single AtomicLong.</p>
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio      Retries allowed per request (e.g., 0.2)
+     * @param minRetries Retries always available, even before any traffic
+     */
+    public RetryBudget(double ratio, int minRetries) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = Math.max(1, minRetries) * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Credits the budget for a first attempt.
+     */
+    public void onRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * Spends one retry if the budget allows it.
+     *
+     * @return True if the retry may proceed
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of whole retries currently available.
+     */
+    public long available() {
+        return balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,113 @@
+package com.petstore.api;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.EndpointNormalizer;
+import io.restassured.http.Method;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RetryPolicies maps each endpoint to the {@link RetryPolicy} applied by {@link ApiClient}.
+ *
+ * <p>Policies are looked up by endpoint key, e.g. {@code "GET /pet/{id}"} (see
+ * {@link EndpointNormalizer}). If no policy is registered for a key, a default for the
+ * HTTP method is used. The defaults are built from the {@code retry.*} configuration
+ * keys:</p>
+ * <ul>
+ *   <li>GET, PUT and DELETE are idempotent. They are retried on 429, 502, 503 and 504,
+ *   on connection failures and on read timeouts.</li>
+ *   <li>POST is retried only when the request cannot have reached the server: a 503
+ *   or 429, or a failed connect. A read timeout is not retried.</li>
+ * </ul>
+ */
+public class RetryPolicies {
+
+    private static final Map<String, RetryPolicy> BY_ENDPOINT = new ConcurrentHashMap<>();
+
+    private static volatile Defaults defaults;
+
+    /**
+     * Registers a policy for an endpoint key, replacing the method default.
+     *
+     * @param endpointKey Key such as "GET /pet/findByStatus"
+     * @param policy      Policy to apply
+     */
+    public static void register(String endpointKey, RetryPolicy policy) {
+        BY_ENDPOINT.put(endpointKey, policy);
+    }
+
+    /**
+     * Removes a registered policy so the method default applies again.
+     */
+    public static void unregister(String endpointKey) {
+        BY_ENDPOINT.remove(endpointKey);
+    }
+
+    /**
+     * Returns the policy for a request.
+     *
+     * @param method   HTTP method
+     * @param endpoint Request path (e.g., "/pet/123")
+     * @return Registered policy for the endpoint key, or the default for the method
+     */
+    public static RetryPolicy forRequest(Method method, String endpoint) {
+        if (!BY_ENDPOINT.isEmpty()) {
+            RetryPolicy registered = BY_ENDPOINT.get(EndpointNormalizer.key(method.name(), endpoint));
+            if (registered != null) {
+                return registered;
+            }
+        }
+        Defaults d = defaults(ConfigManager.get());
+        return method == Method.POST ? d.nonIdempotent : d.idempotent;
+    }
+
+    private static Defaults defaults(PetStoreConfig config) {
+        Defaults d = defaults;
+        if (d == null || d.config != config) {
+            d = new Defaults(config);
+            defaults = d;
+        }
+        return d;
+    }
+
+    /**
+     * Method defaults built from one configuration snapshot.
+     */
+    private static class Defaults {
+        private final PetStoreConfig config;
+        private final RetryPolicy idempotent;
+        private final RetryPolicy nonIdempotent;
+
+        Defaults(PetStoreConfig config) {
+            this.config = config;
+            int maxAttempts = config.getInt("retry.maxAttempts");
+            long initialBackoffMs = config.getLong("retry.initialBackoffMs");
+            long maxBackoffMs = config.getLong("retry.maxBackoffMs");
+            long maxElapsedMs = config.getLong("retry.maxElapsedMs");
+
+            this.idempotent = RetryPolicy.builder()
+                    .retryOnStatus(429, 502, 503, 504)
+                    .retryOn(ConnectException.class, ConnectTimeoutException.class, HttpConnectTimeoutException.class,
+                            NoHttpResponseException.class, SocketTimeoutException.class, HttpTimeoutException.class)
+                    .maxAttempts(maxAttempts)
+                    .backoff(initialBackoffMs, maxBackoffMs)
+                    .maxElapsedMs(maxElapsedMs)
+                    .build();
+            this.nonIdempotent = RetryPolicy.builder()
+                    .retryOnStatus(429, 503)
+                    .retryOn(ConnectException.class, ConnectTimeoutException.class, HttpConnectTimeoutException.class)
+                    .maxAttempts(maxAttempts)
+                    .backoff(initialBackoffMs, maxBackoffMs)
+                    .maxElapsedMs(maxElapsedMs)
+                    .build();
+        }
+    }
+}
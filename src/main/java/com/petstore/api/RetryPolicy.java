@@ -0,0 +1,130 @@
+package com.petstore.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RetryPolicy declares when and how a request may be retried.
+ *
+ * <p>A policy lists the HTTP status codes and exception types that are worth retrying,
+ * the maximum number of attempts, and a total time budget across attempts. Backoff is
+ * exponential with equal jitter between the initial and maximum delay. Anything not
+ * listed is returned or thrown immediately. For example, a 404 is an answer, not a
+ * failure, so it is never retried.</p>
+ *
+ * <p>Policies are immutable. Build them with {@link #builder()} and register them per
+ * endpoint in {@link RetryPolicies}.</p>
+ */
+public class RetryPolicy {
+
+    /** A policy that never retries. */
+    public static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private final Set<Integer> retryableStatuses;
+    private final List<Class<? extends Throwable>> retryableExceptions;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long maxElapsedMs;
+
+    private RetryPolicy(Builder builder) {
+        this.retryableStatuses = Collections.unmodifiableSet(new HashSet<>(builder.retryableStatuses));
+        this.retryableExceptions = Collections.unmodifiableList(new ArrayList<>(builder.retryableExceptions));
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffMs = builder.initialBackoffMs;
+        this.maxBackoffMs = builder.maxBackoffMs;
+        this.maxElapsedMs = builder.maxElapsedMs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns true if a response with this status should be retried.
+     */
+    public boolean isRetryable(int status) {
+        return retryableStatuses.contains(status);
+    }
+
+    /**
+     * Returns true if this failure, or any of its causes, is of a retryable type.
+     */
+    public boolean isRetryable(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            for (Class<? extends Throwable> type : retryableExceptions) {
+                if (type.isInstance(t)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the delay before the given retry (1 for the first retry), with equal jitter.
+     */
+    public long backoffMs(int retry) {
+        long delay = initialBackoffMs;
+        for (int i = 1; i < retry && delay < maxBackoffMs; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, maxBackoffMs);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+
+    public long getMaxElapsedMs() { return maxElapsedMs; }
+
+    /**
+     * Builder for {@link RetryPolicy}. Defaults: 1 attempt, 100 ms initial and 2 s maximum backoff, 10 s budget.
+     */
+    public static class Builder {
+        private final Set<Integer> retryableStatuses = new HashSet<>();
+        private final List<Class<? extends Throwable>> retryableExceptions = new ArrayList<>();
+        private int maxAttempts = 1;
+        private long initialBackoffMs = 100;
+        private long maxBackoffMs = 2000;
+        private long maxElapsedMs = 10000;
+
+        public Builder retryOnStatus(Integer... statuses) {
+            retryableStatuses.addAll(Arrays.asList(statuses));
+            return this;
+        }
+
+        @SafeVarargs
+        public final Builder retryOn(Class<? extends Throwable>... types) {
+            for (Class<? extends Throwable> type : types) {
+                retryableExceptions.add(type);
+            }
+            return this;
+        }
+
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = Math.max(1, maxAttempts);
+            return this;
+        }
+
+        public Builder backoff(long initialMs, long maxMs) {
+            this.initialBackoffMs = Math.max(1, initialMs);
+            this.maxBackoffMs = Math.max(this.initialBackoffMs, maxMs);
+            return this;
+        }
+
+        public Builder maxElapsedMs(long maxElapsedMs) {
+            this.maxElapsedMs = maxElapsedMs;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -1,14 +1,392 @@
 package com.petstore.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ConfigManager resolves the framework configuration from layered sources.
+ *
+ * <p>Layers, lowest to highest precedence:</p>
+ * <ol>
+ *   <li>built-in defaults (below),</li>
+ *   <li>{@code petstore.properties} on the classpath,</li>
+ *   <li>{@code petstore-<env>.properties} on the classpath, where env comes from
+ *   {@code -Dpetstore.env} or {@code PETSTORE_ENV} (e.g. "load"),</li>
+ *   <li>an external properties file named by {@code -Dpetstore.config} or {@code PETSTORE_CONFIG},</li>
+ *   <li>environment variables: {@code http.readTimeoutMs} becomes {@code HTTP_READ_TIMEOUT_MS},</li>
+ *   <li>{@code -D} system properties with the same key,</li>
+ *   <li>runtime overrides set through {@link #override(String, String)}.</li>
+ * </ol>
+ *
+ * <p>The layers are merged once into an immutable {@link PetStoreConfig} snapshot,
+ * which is published through a volatile field so request-path reads are lock-free.
+ * With {@code petstore.config.watch=true}, changes to the external file are picked
+ * up by a background watcher, which swaps in a new snapshot atomically.</p>
+ */
 public class ConfigManager {
-    private static final String BASE_URL = "https://petstore.swagger.io/v2";
-    private static final String API_KEY = "special-key";
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigManager.class);
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("petstore.baseUrl", "https://petstore.swagger.io/v2");
+        DEFAULTS.put("petstore.apiKey", "special-key");
+        // "stub" runs against the embedded PetStoreStubServer, "remote" against petstore.baseUrl
+        DEFAULTS.put("petstore.target", "stub");
+
+        // HTTP connection pool and timeouts used by the shared ApiClient transport
+        DEFAULTS.put("http.maxConnections", "50");
+        DEFAULTS.put("http.maxConnectionsPerRoute", "20");
+        DEFAULTS.put("http.connectTimeoutMs", "5000");
+        DEFAULTS.put("http.readTimeoutMs", "15000");
+        DEFAULTS.put("http.keepAliveMs", "30000");
+
+        // Upper bound on concurrent requests issued through AsyncApiClient
+        DEFAULTS.put("async.maxInFlight", "64");
+
+        // Default retry policy, global retry budget and circuit breaker (ApiClient)
+        DEFAULTS.put("retry.maxAttempts", "3");
+        DEFAULTS.put("retry.initialBackoffMs", "100");
+        DEFAULTS.put("retry.maxBackoffMs", "2000");
+        DEFAULTS.put("retry.maxElapsedMs", "10000");
+        DEFAULTS.put("retry.budgetRatio", "0.2");
+        DEFAULTS.put("retry.budgetMinRetries", "10");
+        DEFAULTS.put("circuit.windowSize", "50");
+        DEFAULTS.put("circuit.minCalls", "20");
+        DEFAULTS.put("circuit.failureRateThreshold", "0.5");
+        DEFAULTS.put("circuit.openMs", "5000");
+
+        // Client-side rate limits (RequestScheduler); 0 = unlimited
+        DEFAULTS.put("ratelimit.ratePerSecond", "0");
+        DEFAULTS.put("ratelimit.endpointRatePerSecond", "0");
+        DEFAULTS.put("ratelimit.endpointRates", "");
+        DEFAULTS.put("ratelimit.burst", "10");
+        DEFAULTS.put("ratelimit.cleanupReserve", "5");
+
+        // Single-flight de-duplication of identical GETs and optional response cache (RequestCoalescer)
+        DEFAULTS.put("coalesce.enabled", "true");
+        DEFAULTS.put("coalesce.cacheTtlMs", "0");
+        DEFAULTS.put("coalesce.cacheMaxEntries", "10000");
+        DEFAULTS.put("coalesce.trackedWrites", "100000");
+
+        // Polling budget for eventually consistent reads (ResponseWaiter)
+        DEFAULTS.put("wait.initialDelayMs", "100");
+        DEFAULTS.put("wait.maxDelayMs", "2000");
+        DEFAULTS.put("wait.timeoutMs", "15000");
+
+        // Record/replay of API exchanges (RecordReplay): off, record or replay
+        DEFAULTS.put("replay.mode", "off");
+        DEFAULTS.put("replay.file", "src/test/resources/replay/petstore.replay");
+
+        // Bulk fixture teardown (FixtureManager)
+        DEFAULTS.put("fixtures.teardownConcurrency", "8");
+
+        // Generated pet populations (PetPopulation)
+        DEFAULTS.put("population.seed", "42");
+        DEFAULTS.put("population.size", "1000");
+        DEFAULTS.put("population.statusWeights", "available:70,pending:20,sold:10");
+        DEFAULTS.put("population.namePattern", "{word}-{index}");
+        DEFAULTS.put("population.minPhotos", "1");
+        DEFAULTS.put("population.maxPhotos", "3");
+
+        // Load mode parallelism (LoadRunner)
+        DEFAULTS.put("load.model", "closed");
+        DEFAULTS.put("load.users", "8");
+        DEFAULTS.put("load.rate", "50");
+        DEFAULTS.put("load.durationSeconds", "30");
+        DEFAULTS.put("load.target", "stub");
+        DEFAULTS.put("load.report", "target/load-report.json");
+
+        // Number of steps listed in the step timing report (StepTimingPlugin)
+        DEFAULTS.put("profile.topN", "20");
+
+        // Sharding across processes or CI nodes (CucumberSessionListener, ShardReportMerger)
+        DEFAULTS.put("shard.index", "0");
+        DEFAULTS.put("shard.total", "1");
+        DEFAULTS.put("shard.strategy", "duration");
+        DEFAULTS.put("shard.history", ".shard-timings.json");
+        DEFAULTS.put("shard.outputRoot", "target/shards");
+
+        // Run history and regression gate (RunHistoryPlugin, RegressionGate)
+        DEFAULTS.put("history.enabled", "true");
+        DEFAULTS.put("history.dir", ".run-history");
+        DEFAULTS.put("history.baselineRuns", "20");
+        DEFAULTS.put("history.minBaselineRuns", "5");
+        DEFAULTS.put("history.zThreshold", "3.5");
+        DEFAULTS.put("history.minRegressionRatio", "0.2");
+        DEFAULTS.put("history.minDeltaMs", "5");
+        DEFAULTS.put("history.report", "target/history/regression-report.txt");
+
+        // Fault injection for the embedded stub (all off by default)
+        DEFAULTS.put("stub.latencyMs", "0");
+        DEFAULTS.put("stub.latencyJitterMs", "0");
+        DEFAULTS.put("stub.errorRate", "0");
+        DEFAULTS.put("stub.consistencyDelayMs", "0");
+
+        // Background warm-up of the HTTP, JSON and schema paths at startup (Warmup)
+        DEFAULTS.put("startup.warmup", "true");
+
+        DEFAULTS.put("petstore.config.watch", "false");
+    }
+
+    private static final Map<String, String> OVERRIDES = new ConcurrentHashMap<>();
+
+    private static volatile PetStoreConfig current = resolve();
+
+    static {
+        startWatcherIfEnabled();
+    }
+
+    /**
+     * Returns the current configuration snapshot. Never blocks.
+     */
+    public static PetStoreConfig get() {
+        return current;
+    }
+
+    /**
+     * Re-reads every layer and publishes a new snapshot.
+     */
+    public static synchronized PetStoreConfig reload() {
+        current = resolve();
+        return current;
+    }
+
+    /**
+     * Sets a runtime override (highest precedence) and publishes a new snapshot.
+     * Used, for example, to point the suite at a stub server started at runtime.
+     */
+    public static synchronized void override(String key, String value) {
+        OVERRIDES.put(key, value);
+        current = resolve();
+    }
+
+    /**
+     * Removes a runtime override and publishes a new snapshot.
+     */
+    public static synchronized void clearOverride(String key) {
+        OVERRIDES.remove(key);
+        current = resolve();
+    }
 
     public static String getBaseUrl() {
-        return BASE_URL;
+        return current.getBaseUrl();
     }
 
     public static String getApiKey() {
-        return API_KEY;
+        return current.getApiKey();
+    }
+
+    public static int getMaxConnections() {
+        return current.getMaxConnections();
+    }
+
+    public static int getMaxConnectionsPerRoute() {
+        return current.getMaxConnectionsPerRoute();
+    }
+
+    public static int getConnectTimeoutMs() {
+        return current.getConnectTimeoutMs();
+    }
+
+    public static int getReadTimeoutMs() {
+        return current.getReadTimeoutMs();
+    }
+
+    public static long getKeepAliveMs() {
+        return current.getKeepAliveMs();
+    }
+
+    public static int getAsyncMaxInFlight() {
+        return current.getAsyncMaxInFlight();
+    }
+
+    public static String getReplayMode() {
+        return current.getString("replay.mode");
+    }
+
+    public static String getTarget() {
+        return current.getString("petstore.target");
+    }
+
+    public static boolean isStubTarget() {
+        return "stub".equals(getTarget());
+    }
+
+    public static long getStubLatencyMs() {
+        return current.getLong("stub.latencyMs");
+    }
+
+    public static long getStubLatencyJitterMs() {
+        return current.getLong("stub.latencyJitterMs");
+    }
+
+    public static double getStubErrorRate() {
+        return current.getDouble("stub.errorRate");
+    }
+
+    public static long getStubConsistencyDelayMs() {
+        return current.getLong("stub.consistencyDelayMs");
+    }
+
+    private static PetStoreConfig resolve() {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+
+        mergeClasspath(values, "petstore.properties");
+        String env = firstNonNull(System.getProperty("petstore.env"), System.getenv("PETSTORE_ENV"));
+        if (env != null) {
+            mergeClasspath(values, "petstore-" + env + ".properties");
+        }
+        Path external = externalFile();
+        if (external != null) {
+            merge(values, readFile(external));
+        }
+
+        // Environment variables and system properties can override any known or file-provided key
+        for (String key : values.keySet().toArray(new String[0])) {
+            String fromEnv = System.getenv(toEnvName(key));
+            if (fromEnv != null) {
+                values.put(key, fromEnv);
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (values.containsKey(key) || isFrameworkKey(key)) {
+                values.put(key, System.getProperty(key));
+            }
+        }
+        values.putAll(OVERRIDES);
+
+        return new PetStoreConfig(values);
+    }
+
+    // True for keys sharing a namespace with a default, e.g. "stub.*" or "load.*"
+    private static boolean isFrameworkKey(String key) {
+        int dot = key.indexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        String prefix = key.substring(0, dot);
+        for (String known : DEFAULTS.keySet()) {
+            if (known.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // http.readTimeoutMs -> HTTP_READ_TIMEOUT_MS
+    static String toEnvName(String key) {
+        StringBuilder sb = new StringBuilder(key.length() + 8);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.' || c == '-') {
+                sb.append('_');
+            } else if (Character.isUpperCase(c)) {
+                sb.append('_').append(c);
+            } else {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void mergeClasspath(Map<String, String> values, String resource) {
+        try (InputStream in = ConfigManager.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                merge(values, properties);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + resource, e);
+        }
+    }
+
+    private static Properties readFile(Path file) {
+        Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + file, e);
+            }
+        } else {
+            logger.warn("Configuration file {} not found, ignoring it", file);
+        }
+        return properties;
+    }
+
+    private static void merge(Map<String, String> values, Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key).trim());
+        }
+    }
+
+    private static Path externalFile() {
+        String path = firstNonNull(System.getProperty("petstore.config"), System.getenv("PETSTORE_CONFIG"));
+        return path == null ? null : Paths.get(path).toAbsolutePath();
+    }
+
+    private static String firstNonNull(String a, String b) {
+        return a != null ? a : b;
+    }
+
+    private static void startWatcherIfEnabled() {
+        Path file = externalFile();
+        if (file == null || !current.getBoolean("petstore.config.watch") || file.getParent() == null) {
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(file), "petstore-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching {} for configuration changes", file);
+    }
+
+    private static void watch(Path file) {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            file.getParent().register(service,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                        logger.info("Reloaded configuration from {}", file);
+                    } catch (RuntimeException e) {
+                        // Keep serving the previous snapshot if the edited file is invalid
+                        logger.warn("Ignoring invalid configuration change in {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ClosedWatchServiceException e) {
+            logger.warn("Configuration watcher for {} stopped: {}", file, e.getMessage());
+        }
     }
 }
@@ -0,0 +1,117 @@
+package com.petstore.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PetStoreConfig is an immutable snapshot of the resolved configuration.
+ *
+ * <p>{@link ConfigManager} builds one snapshot from all configuration layers and
+ * publishes it atomically. Readers keep a reference for as long as they need a
+ * consistent view, and no lock is taken on read. The HTTP settings read on every
+ * request are parsed once into fields. Everything else is available through the
+ * typed {@code get*} accessors.</p>
+ */
+public final class PetStoreConfig {
+
+    private final Map<String, String> values;
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final long keepAliveMs;
+    private final int asyncMaxInFlight;
+
+    PetStoreConfig(Map<String, String> values) {
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        this.baseUrl = getString("petstore.baseUrl");
+        this.apiKey = getString("petstore.apiKey");
+        this.maxConnections = getInt("http.maxConnections");
+        this.maxConnectionsPerRoute = getInt("http.maxConnectionsPerRoute");
+        this.connectTimeoutMs = getInt("http.connectTimeoutMs");
+        this.readTimeoutMs = getInt("http.readTimeoutMs");
+        this.keepAliveMs = getLong("http.keepAliveMs");
+        this.asyncMaxInFlight = getInt("async.maxInFlight");
+    }
+
+    public String getBaseUrl() { return baseUrl; }
+
+    public String getApiKey() { return apiKey; }
+
+    public int getMaxConnections() { return maxConnections; }
+
+    public int getMaxConnectionsPerRoute() { return maxConnectionsPerRoute; }
+
+    public int getConnectTimeoutMs() { return connectTimeoutMs; }
+
+    public int getReadTimeoutMs() { return readTimeoutMs; }
+
+    public long getKeepAliveMs() { return keepAliveMs; }
+
+    public int getAsyncMaxInFlight() { return asyncMaxInFlight; }
+
+    /**
+     * Returns true if any setting used to build HTTP clients differs from the other snapshot.
+     */
+    public boolean httpSettingsDiffer(PetStoreConfig other) {
+        return other == null
+                || maxConnections != other.maxConnections
+                || maxConnectionsPerRoute != other.maxConnectionsPerRoute
+                || connectTimeoutMs != other.connectTimeoutMs
+                || readTimeoutMs != other.readTimeoutMs
+                || keepAliveMs != other.keepAliveMs;
+    }
+
+    public boolean has(String key) {
+        return values.containsKey(key);
+    }
+
+    public String getString(String key) {
+        String value = values.get(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing configuration value: " + key);
+        }
+        return value;
+    }
+
+    public String getString(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(String key) {
+        return (int) getLong(key);
+    }
+
+    public long getLong(String key) {
+        String value = getString(key);
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Configuration value " + key + "=" + value + " is not a number", e);
+        }
+    }
+
+    public double getDouble(String key) {
+        String value = getString(key);
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Configuration value " + key + "=" + value + " is not a number", e);
+        }
+    }
+
+    public boolean getBoolean(String key) {
+        return Boolean.parseBoolean(getString(key).trim());
+    }
+
+    /**
+     * Returns all resolved values, in resolution order of their keys.
+     */
+    public Map<String, String> asMap() {
+        return values;
+    }
+}
@@ -0,0 +1,241 @@
+package com.petstore.history;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RegressionGate compares the latest recorded run with a rolling baseline of the runs
+ * before it and fails when a duration or latency got significantly worse.
+ *
+ * <p>The baseline is the previous {@code history.baselineRuns} runs with the same label.
+ * For each series (the suite, every scenario, step and endpoint) it takes the baseline
+ * median and median absolute deviation (MAD) of the mean duration. A series regressed
+ * when all of these hold:</p>
+ * <ul>
+ *   <li>its robust z-score, {@code (current - median) / (1.4826 * MAD)}, exceeds
+ *   {@code history.zThreshold}, i.e. the slowdown is well outside the usual run-to-run
+ *   noise,</li>
+ *   <li>it is at least {@code history.minRegressionRatio} slower than the median,</li>
+ *   <li>it is at least {@code history.minDeltaMs} slower in absolute terms.</li>
+ * </ul>
+ * <p>Median and MAD are not dragged along by one slow outlier run, so a single bad run in
+ * the baseline does not hide the next one. Series seen in fewer than
+ * {@code history.minBaselineRuns} baseline runs are reported as new and never fail.</p>
+ *
+ * <p>Run it after the suite, e.g. {@code mvn test -Phistory-gate}. It writes the
+ * comparison to {@code history.report} and exits with status 1 on a regression:</p>
+ * <pre>
+ * java -cp ... com.petstore.history.RegressionGate [historyDir]
+ * </pre>
+ */
+public class RegressionGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegressionGate.class);
+
+    // Scales the MAD to the standard deviation of normally distributed data
+    private static final double MAD_TO_SIGMA = 1.4826;
+
+    public static void main(String[] args) throws IOException {
+        PetStoreConfig config = ConfigManager.get();
+        Path dir = Paths.get(args.length > 0 ? args[0] : config.getString("history.dir"));
+        Verdict verdict = evaluate(new RunHistoryStore(dir), config);
+
+        Path report = Paths.get(config.getString("history.report"));
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            out.println(verdict.getMessage());
+            out.print(verdict.toTable());
+        }
+
+        if (verdict.hasRegressions()) {
+            logger.error("{}\n{}", verdict.getMessage(), verdict.toTable());
+            System.exit(1);
+        }
+        logger.info("{} (report in {})", verdict.getMessage(), report);
+    }
+
+    /**
+     * Compares the latest run in the store with the runs before it that share its label.
+     */
+    public static Verdict evaluate(RunHistoryStore store, PetStoreConfig config) {
+        RunRecord last = store.last();
+        if (last == null) {
+            return new Verdict(0, Collections.emptyList(), "No runs recorded in " + store.getFile());
+        }
+        return evaluate(store, last.getLabel(), config);
+    }
+
+    /**
+     * Compares the latest run with the label with the runs before it that share the label.
+     */
+    public static Verdict evaluate(RunHistoryStore store, String label, PetStoreConfig config) {
+        List<RunRecord> runs = store.latest(label, config.getInt("history.baselineRuns") + 1);
+        if (runs.isEmpty()) {
+            return new Verdict(0, Collections.emptyList(), "No runs labelled '" + label + "' in " + store.getFile());
+        }
+        RunRecord current = runs.get(runs.size() - 1);
+        return compare(current, runs.subList(0, runs.size() - 1), config);
+    }
+
+    /**
+     * Compares one run with a baseline of earlier runs.
+     */
+    public static Verdict compare(RunRecord current, List<RunRecord> baseline, PetStoreConfig config) {
+        int minRuns = config.getInt("history.minBaselineRuns");
+        double zThreshold = config.getDouble("history.zThreshold");
+        double minRatio = config.getDouble("history.minRegressionRatio");
+        double minDeltaMs = config.getDouble("history.minDeltaMs");
+
+        List<Map<String, RunRecord.Series>> previous = new ArrayList<>(baseline.size());
+        for (RunRecord run : baseline) {
+            previous.add(run.byKey());
+        }
+
+        List<Comparison> comparisons = new ArrayList<>();
+        for (RunRecord.Series series : current.getSeries()) {
+            double[] values = previous.stream()
+                    .map(run -> run.get(series.key()))
+                    .filter(s -> s != null && s.getCount() > 0)
+                    .mapToDouble(RunRecord.Series::getMeanMs)
+                    .toArray();
+            if (values.length < minRuns || series.getCount() == 0) {
+                comparisons.add(new Comparison(series, values.length, Double.NaN, Double.NaN, false));
+                continue;
+            }
+            double median = median(values);
+            double sigma = MAD_TO_SIGMA * mad(values, median);
+            double delta = series.getMeanMs() - median;
+            // With no spread at all, any slowdown beyond the ratio and delta floors counts as significant
+            double z = sigma > 0 ? delta / sigma : (delta > 0 ? Double.POSITIVE_INFINITY : 0);
+            boolean regressed = z > zThreshold && delta >= minDeltaMs && series.getMeanMs() > median * (1 + minRatio);
+            comparisons.add(new Comparison(series, values.length, median, z, regressed));
+        }
+
+        long regressions = comparisons.stream().filter(c -> c.regressed).count();
+        String message = baseline.size() < minRuns
+                ? "Baseline has " + baseline.size() + " run(s) labelled '" + current.getLabel()
+                        + "', gating starts at " + minRuns
+                : regressions == 0
+                        ? "No regressions against the last " + baseline.size() + " run(s) labelled '"
+                                + current.getLabel() + "'"
+                        : regressions + " regression(s) against the last " + baseline.size()
+                                + " run(s) labelled '" + current.getLabel() + "'";
+        return new Verdict(baseline.size(), comparisons, message);
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    private static double mad(double[] values, double median) {
+        double[] deviations = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            deviations[i] = Math.abs(values[i] - median);
+        }
+        return median(deviations);
+    }
+
+    /**
+     * Outcome of a comparison: every series compared and whether any regressed.
+     */
+    public static class Verdict {
+        private final int baselineRuns;
+        private final List<Comparison> comparisons;
+        private final String message;
+
+        Verdict(int baselineRuns, List<Comparison> comparisons, String message) {
+            this.baselineRuns = baselineRuns;
+            this.comparisons = comparisons;
+            this.message = message;
+        }
+
+        public int getBaselineRuns() { return baselineRuns; }
+
+        public List<Comparison> getComparisons() { return comparisons; }
+
+        public String getMessage() { return message; }
+
+        public boolean hasRegressions() {
+            return comparisons.stream().anyMatch(Comparison::isRegressed);
+        }
+
+        /**
+         * Formats the regressed series, or every compared series if none regressed, as a fixed-width table.
+         */
+        public String toTable() {
+            boolean onlyRegressed = hasRegressions();
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-60s %10s %10s %8s %8s %6s%n",
+                    "series", "mean ms", "base ms", "change", "z", "fails"));
+            for (Comparison c : comparisons) {
+                if (onlyRegressed && !c.regressed) {
+                    continue;
+                }
+                RunRecord.Series s = c.series;
+                String key = s.key().length() <= 60 ? s.key() : s.key().substring(0, 57) + "...";
+                if (Double.isNaN(c.baselineMedianMs)) {
+                    sb.append(String.format("%-60s %10.2f %10s %8s %8s %6d%n", key, s.getMeanMs(),
+                            "new", "", "", s.getFailures()));
+                } else {
+                    sb.append(String.format("%-60s %10.2f %10.2f %+7.1f%% %8.1f %6d%s%n", key, s.getMeanMs(),
+                            c.baselineMedianMs, c.changePercent(), c.z, s.getFailures(),
+                            c.regressed ? "  REGRESSED" : ""));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * One series of the current run against its baseline.
+     */
+    public static class Comparison {
+        private final RunRecord.Series series;
+        private final int baselineSamples;
+        private final double baselineMedianMs;
+        private final double z;
+        private final boolean regressed;
+
+        Comparison(RunRecord.Series series, int baselineSamples, double baselineMedianMs, double z,
+                   boolean regressed) {
+            this.series = series;
+            this.baselineSamples = baselineSamples;
+            this.baselineMedianMs = baselineMedianMs;
+            this.z = z;
+            this.regressed = regressed;
+        }
+
+        public RunRecord.Series getSeries() { return series; }
+
+        public int getBaselineSamples() { return baselineSamples; }
+
+        public double getBaselineMedianMs() { return baselineMedianMs; }
+
+        public double getZ() { return z; }
+
+        public boolean isRegressed() { return regressed; }
+
+        double changePercent() {
+            return baselineMedianMs == 0 ? 0 : (series.getMeanMs() - baselineMedianMs) * 100 / baselineMedianMs;
+        }
+    }
+}
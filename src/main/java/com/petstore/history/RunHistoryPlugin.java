@@ -0,0 +1,156 @@
+package com.petstore.history;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.ApiMetrics;
+import com.petstore.sharding.Shard;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RunHistoryPlugin is a Cucumber plugin that appends a summary of every run to the
+ * {@link RunHistoryStore} in {@code history.dir}.
+ *
+ * <p>It records the run's wall time, each scenario's duration and outcome (scenarios of
+ * an outline share their name and are aggregated), each step's duration and outcome
+ * grouped by step text, and the per-endpoint latencies from {@link ApiMetrics}. The run
+ * is labelled with its tag filter and shard, so runs of different subsets are never
+ * compared with each other.</p>
+ *
+ * <p>After recording, it logs the {@link RegressionGate} verdict against the previous
+ * runs. The gate only fails the build when run on its own, see {@link RegressionGate}.
+ * Set {@code history.enabled=false} to record nothing.</p>
+ */
+public class RunHistoryPlugin implements ConcurrentEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunHistoryPlugin.class);
+
+    private final Map<String, Timings> scenarios = new ConcurrentHashMap<>();
+    private final Map<String, Timings> steps = new ConcurrentHashMap<>();
+    private volatile Instant startedAt = Instant.now();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, event -> startedAt = event.getInstant());
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, this::onRunFinished);
+    }
+
+    /**
+     * Label shared by comparable runs, e.g. "tags=@smoke shard=1/3" or "all".
+     */
+    public static String currentLabel() {
+        String tags = System.getProperty("cucumber.filter.tags", "").trim();
+        StringBuilder label = new StringBuilder();
+        if (!tags.isEmpty()) {
+            label.append("tags=").append(tags);
+        }
+        if (Shard.isSharded()) {
+            label.append(label.length() > 0 ? " " : "").append("shard=").append(Shard.index() + 1)
+                    .append('/').append(Shard.total());
+        }
+        return label.length() > 0 ? label.toString() : "all";
+    }
+
+    private void onStepFinished(TestStepFinished event) {
+        if (!(event.getTestStep() instanceof PickleStepTestStep)) {
+            return; // hooks are mostly teardown; their time still counts towards the scenario
+        }
+        PickleStepTestStep step = (PickleStepTestStep) event.getTestStep();
+        String text = step.getStep().getKeyword().trim() + ' ' + step.getStep().getText();
+        steps.computeIfAbsent(text, k -> new Timings())
+                .add(event.getResult().getDuration().toNanos(), isFailure(event.getResult().getStatus()));
+    }
+
+    private void onCaseFinished(TestCaseFinished event) {
+        scenarios.computeIfAbsent(scenarioName(event.getTestCase()), k -> new Timings())
+                .add(event.getResult().getDuration().toNanos(), isFailure(event.getResult().getStatus()));
+    }
+
+    private void onRunFinished(TestRunFinished event) {
+        PetStoreConfig config = ConfigManager.get();
+        if (!config.getBoolean("history.enabled")) {
+            return;
+        }
+        long durationMs = event.getInstant().toEpochMilli() - startedAt.toEpochMilli();
+        int failedScenarios = 0;
+        List<RunRecord.Series> series = new ArrayList<>();
+        for (Map.Entry<String, Timings> e : new TreeMap<>(scenarios).entrySet()) {
+            RunRecord.Series scenario = e.getValue().toSeries(RunRecord.Kind.SCENARIO, e.getKey());
+            series.add(scenario);
+            failedScenarios += scenario.getFailures();
+        }
+        int scenarioCount = series.stream().mapToInt(RunRecord.Series::getCount).sum();
+        series.add(0, new RunRecord.Series(RunRecord.Kind.SUITE, "run", scenarioCount, failedScenarios,
+                durationMs, durationMs));
+        new TreeMap<>(steps).forEach((text, timings) -> series.add(timings.toSeries(RunRecord.Kind.STEP, text)));
+        ApiMetrics.summary().forEach((endpoint, row) -> series.add(new RunRecord.Series(RunRecord.Kind.ENDPOINT,
+                endpoint, (int) (long) row.get("count"), (int) (long) row.get("errors"),
+                (double) row.get("meanMs"), (double) row.get("p99Ms"))));
+
+        RunRecord run = new RunRecord(startedAt.toEpochMilli(), durationMs, currentLabel(), series);
+        RunHistoryStore store = new RunHistoryStore(Paths.get(config.getString("history.dir")));
+        store.append(run);
+        logger.info("Recorded run '{}' ({} ms, {} series) in {}", run.getLabel(), durationMs, series.size(),
+                store.getFile());
+
+        RegressionGate.Verdict verdict = RegressionGate.evaluate(store, run.getLabel(), config);
+        if (verdict.hasRegressions()) {
+            logger.warn("Performance regressions against the last {} run(s):\n{}",
+                    verdict.getBaselineRuns(), verdict.toTable());
+        } else {
+            logger.info("Run history: {}", verdict.getMessage());
+        }
+    }
+
+    private static String scenarioName(TestCase testCase) {
+        String path = testCase.getUri().toString();
+        return path.substring(path.lastIndexOf('/') + 1) + ": " + testCase.getName();
+    }
+
+    private static boolean isFailure(Status status) {
+        return status == Status.FAILED || status == Status.UNDEFINED || status == Status.AMBIGUOUS;
+    }
+
+    /**
+     * Count, failures, total and maximum duration of one scenario or step.
+     */
+    private static class Timings {
+        private int count;
+        private int failures;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void add(long nanos, boolean failed) {
+            count++;
+            if (failed) {
+                failures++;
+            }
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized RunRecord.Series toSeries(RunRecord.Kind kind, String name) {
+            return new RunRecord.Series(kind, name, count, failures,
+                    count == 0 ? 0 : totalNanos / 1e6 / count, maxNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.petstore.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RunHistoryStore keeps every recorded {@link RunRecord} in one append-only binary file.
+ *
+ * <p>Layout (big-endian):</p>
+ * <pre>
+ *   header  int magic "PSRH", short version
+ *   run     long startedAtMillis, long durationMs, short labelLength, label (UTF-8),
+ *           int seriesCount, then per series:
+ *             byte kind, short nameLength, name (UTF-8), int count, int failures,
+ *             float meanMs, float tailMs
+ *   trailer int runLength (bytes of the run above), int magic
+ * </pre>
+ *
+ * <p>The trailer lets a reader walk the file backwards from the end, so loading the last
+ * N runs costs the same after ten runs or ten thousand. Each run is appended with a
+ * single write under an exclusive file lock, so shards running side by side can share
+ * one history directory. A run torn by a crash fails its trailer check; readers then
+ * fall back to a forward scan that skips it, and the next append truncates it.</p>
+ */
+public class RunHistoryStore {
+
+    private static final int MAGIC = 0x50535248; // "PSRH"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 6;
+    private static final int TRAILER_BYTES = 8;
+
+    /**
+     * Name of the history file inside the history directory.
+     */
+    public static final String FILE_NAME = "runs.psrh";
+
+    private final Path file;
+
+    public RunHistoryStore(Path dir) {
+        this.file = dir.resolve(FILE_NAME);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Appends a run, creating the file if needed.
+     */
+    public void append(RunRecord run) {
+        ByteBuffer buffer = encode(run);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    long end = channel.size();
+                    if (end == 0) {
+                        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION);
+                        header.flip();
+                        writeFully(channel, header, 0);
+                        end = HEADER_BYTES;
+                    } else {
+                        checkHeader(channel);
+                        long valid = validEnd(channel);
+                        if (valid < end) {
+                            channel.truncate(valid); // drop a run torn by an earlier crash
+                            end = valid;
+                        }
+                    }
+                    writeFully(channel, buffer, end);
+                    channel.force(false);
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to run history " + file, e);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} of the most recent runs with the label, oldest first.
+     *
+     * @param label Label to match, or null for every run
+     * @param limit Maximum number of runs to return
+     */
+    public List<RunRecord> latest(String label, int limit) {
+        if (!Files.isRegularFile(file) || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<RunRecord> runs = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            checkHeader(channel);
+            long end = channel.size();
+            if (end > HEADER_BYTES && !hasValidTrailer(channel, end)) {
+                end = validEnd(channel);
+            }
+            while (end > HEADER_BYTES && runs.size() < limit) {
+                ByteBuffer trailer = read(channel, end - TRAILER_BYTES, TRAILER_BYTES);
+                int length = trailer.getInt();
+                long start = end - TRAILER_BYTES - length;
+                RunRecord run = decode(read(channel, start, length));
+                if (label == null || label.equals(run.getLabel())) {
+                    runs.add(run);
+                }
+                end = start;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read run history " + file, e);
+        }
+        Collections.reverse(runs);
+        return runs;
+    }
+
+    /**
+     * Returns the most recent run, or null if nothing was recorded yet.
+     */
+    public RunRecord last() {
+        List<RunRecord> runs = latest(null, 1);
+        return runs.isEmpty() ? null : runs.get(0);
+    }
+
+    private static ByteBuffer encode(RunRecord run) {
+        byte[] label = run.getLabel().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> names = new ArrayList<>(run.getSeries().size());
+        int length = 8 + 8 + 2 + label.length + 4;
+        for (RunRecord.Series s : run.getSeries()) {
+            byte[] name = truncate(s.getName().getBytes(StandardCharsets.UTF_8));
+            names.add(name);
+            length += 1 + 2 + name.length + 4 + 4 + 4 + 4;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length + TRAILER_BYTES);
+        buffer.putLong(run.getStartedAtMillis()).putLong(run.getDurationMs())
+                .putShort((short) label.length).put(label).putInt(run.getSeries().size());
+        for (int i = 0; i < names.size(); i++) {
+            RunRecord.Series s = run.getSeries().get(i);
+            buffer.put((byte) s.getKind().code()).putShort((short) names.get(i).length).put(names.get(i))
+                    .putInt(s.getCount()).putInt(s.getFailures())
+                    .putFloat((float) s.getMeanMs()).putFloat((float) s.getTailMs());
+        }
+        buffer.putInt(length).putInt(MAGIC);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static RunRecord decode(ByteBuffer buffer) {
+        long startedAt = buffer.getLong();
+        long durationMs = buffer.getLong();
+        String label = string(buffer, buffer.getShort());
+        int count = buffer.getInt();
+        List<RunRecord.Series> series = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RunRecord.Kind kind = RunRecord.Kind.of(buffer.get());
+            String name = string(buffer, buffer.getShort());
+            series.add(new RunRecord.Series(kind, name, buffer.getInt(), buffer.getInt(),
+                    buffer.getFloat(), buffer.getFloat()));
+        }
+        return new RunRecord(startedAt, durationMs, label, series);
+    }
+
+    // Names longer than a short can hold are cut; keys stay stable because the cut is deterministic
+    private static byte[] truncate(byte[] name) {
+        if (name.length <= Short.MAX_VALUE) {
+            return name;
+        }
+        byte[] cut = new byte[Short.MAX_VALUE];
+        System.arraycopy(name, 0, cut, 0, cut.length);
+        return cut;
+    }
+
+    private static String string(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IllegalStateException(file + " is not a run history file");
+        }
+        ByteBuffer header = read(channel, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+            throw new IllegalStateException(file + " is not a run history file (version " + VERSION + ")");
+        }
+    }
+
+    private static boolean hasValidTrailer(FileChannel channel, long end) throws IOException {
+        if (end - HEADER_BYTES < TRAILER_BYTES) {
+            return false;
+        }
+        ByteBuffer trailer = read(channel, end - TRAILER_BYTES, TRAILER_BYTES);
+        int length = trailer.getInt();
+        return trailer.getInt() == MAGIC && length >= 0 && end - TRAILER_BYTES - length >= HEADER_BYTES;
+    }
+
+    // End of the last complete run, found by walking forward through the trailers
+    private static long validEnd(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long offset = HEADER_BYTES;
+        ByteBuffer prefix = ByteBuffer.allocate(18);
+        while (offset + 18 <= size) {
+            prefix.clear();
+            channel.read(prefix, offset);
+            prefix.flip();
+            prefix.position(16);
+            int labelLength = prefix.getShort();
+            long seriesOffset = offset + 18 + labelLength;
+            if (labelLength < 0 || seriesOffset + 4 > size) {
+                break;
+            }
+            int count = read(channel, seriesOffset, 4).getInt();
+            long cursor = seriesOffset + 4;
+            for (int i = 0; i < count && cursor + 3 <= size; i++) {
+                int nameLength = read(channel, cursor + 1, 2).getShort();
+                cursor += 1 + 2 + nameLength + 16;
+            }
+            long runEnd = cursor + TRAILER_BYTES;
+            if (count < 0 || runEnd > size || !hasValidTrailer(channel, runEnd)
+                    || read(channel, cursor, 4).getInt() != cursor - offset) {
+                break;
+            }
+            offset = runEnd;
+        }
+        return offset;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of run history at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
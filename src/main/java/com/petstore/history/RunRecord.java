@@ -0,0 +1,115 @@
+package com.petstore.history;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RunRecord is one suite run as kept in the {@link RunHistoryStore}: when it started, how
+ * long it took, which subset it ran and a timing summary per scenario, step and endpoint.
+ *
+ * <p>The label identifies comparable runs. It combines the tag filter and the shard, so
+ * a smoke run is only ever compared with earlier smoke runs.</p>
+ */
+public class RunRecord {
+
+    /**
+     * What a series measures. The code is the value stored on disk.
+     */
+    public enum Kind {
+        SUITE(0), SCENARIO(1), STEP(2), ENDPOINT(3);
+
+        private final int code;
+
+        Kind(int code) {
+            this.code = code;
+        }
+
+        int code() {
+            return code;
+        }
+
+        static Kind of(int code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalStateException("Unknown series kind " + code);
+        }
+    }
+
+    private final long startedAtMillis;
+    private final long durationMs;
+    private final String label;
+    private final List<Series> series;
+
+    public RunRecord(long startedAtMillis, long durationMs, String label, List<Series> series) {
+        this.startedAtMillis = startedAtMillis;
+        this.durationMs = durationMs;
+        this.label = label;
+        this.series = Collections.unmodifiableList(new ArrayList<>(series));
+    }
+
+    public long getStartedAtMillis() { return startedAtMillis; }
+
+    public long getDurationMs() { return durationMs; }
+
+    public String getLabel() { return label; }
+
+    public List<Series> getSeries() { return series; }
+
+    /**
+     * Returns the series by {@link Series#key()}.
+     */
+    public Map<String, Series> byKey() {
+        Map<String, Series> byKey = new LinkedHashMap<>();
+        for (Series s : series) {
+            byKey.put(s.key(), s);
+        }
+        return byKey;
+    }
+
+    /**
+     * Timing summary of one scenario, step or endpoint within a run.
+     * {@code tailMs} is the slowest call for scenarios and steps and the p99 for endpoints.
+     */
+    public static class Series {
+        private final Kind kind;
+        private final String name;
+        private final int count;
+        private final int failures;
+        private final double meanMs;
+        private final double tailMs;
+
+        public Series(Kind kind, String name, int count, int failures, double meanMs, double tailMs) {
+            this.kind = kind;
+            this.name = name;
+            this.count = count;
+            this.failures = failures;
+            this.meanMs = meanMs;
+            this.tailMs = tailMs;
+        }
+
+        public Kind getKind() { return kind; }
+
+        public String getName() { return name; }
+
+        public int getCount() { return count; }
+
+        public int getFailures() { return failures; }
+
+        public double getMeanMs() { return meanMs; }
+
+        public double getTailMs() { return tailMs; }
+
+        /**
+         * Identity of the series across runs, e.g. "ENDPOINT GET /pet/{id}".
+         */
+        public String key() {
+            return kind + " " + name;
+        }
+    }
+}
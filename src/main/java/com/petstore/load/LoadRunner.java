@@ -0,0 +1,201 @@
+package com.petstore.load;
+
+import com.petstore.api.RequestScheduler;
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.models.Pet;
+import com.petstore.stub.PetStoreStubServer;
+import com.petstore.utils.ApiUtils;
+import com.petstore.utils.PetPopulation;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * LoadRunner drives the "Create, Retrieve, Update and Delete Pet" flow as a throughput benchmark.
+ *
+ * <p>It reuses ApiUtils, so the load exercises the same transport as the Cucumber
+ * suite. Each flow creates the next pet of a seeded {@link PetPopulation}
+ * ({@code population.*} keys), so a run covers a realistic mix of names, statuses
+ * and photo counts, and the same seed reproduces the same data. Two workload models
+ * are supported:</p>
+ * <ul>
+ *   <li><b>closed</b>: {@code load.users} virtual users each run the flow back-to-back.</li>
+ *   <li><b>open</b>: new flows start at a constant {@code load.rate} per second, whether or
+ *   not earlier ones have finished. The end-to-end flow latency is measured from each
+ *   flow's scheduled start, so queueing delay is not hidden (no coordinated omission).</li>
+ * </ul>
+ *
+ * <p>By default the run targets an in-process {@link PetStoreStubServer}, so it works
+ * offline. Use {@code -Dload.target=remote} to hit {@link ConfigManager#getBaseUrl()}.
+ * With a {@code ratelimit.*} rate configured, requests are paced by the
+ * {@link RequestScheduler} and the report also lists how long each endpoint waited for it.</p>
+ *
+ * <pre>
+ * mvn -Pload test-compile exec:java -Dload.model=open -Dload.rate=200 -Dload.durationSeconds=30
+ * </pre>
+ */
+public class LoadRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadRunner.class);
+
+    private static final String FLOW = "CRUD flow";
+
+    private final LoadStats stats = new LoadStats();
+
+    private final PetPopulation population = PetPopulation.fromConfig();
+    private final AtomicLong nextPet = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        PetStoreConfig config = ConfigManager.get();
+        String model = config.getString("load.model");
+        int users = config.getInt("load.users");
+        int rate = config.getInt("load.rate");
+        long durationNanos = TimeUnit.SECONDS.toNanos(config.getLong("load.durationSeconds"));
+        boolean useStub = !"remote".equals(config.getString("load.target"));
+        File reportFile = new File(config.getString("load.report"));
+
+        PetStoreStubServer stub = null;
+        if (useStub) {
+            stub = new PetStoreStubServer()
+                    .withLatency(ConfigManager.getStubLatencyMs(), ConfigManager.getStubLatencyJitterMs())
+                    .withErrorRate(ConfigManager.getStubErrorRate())
+                    .withConsistencyDelay(ConfigManager.getStubConsistencyDelayMs())
+                    .start(0);
+            ConfigManager.override("petstore.baseUrl", stub.getBaseUrl());
+        }
+
+        try {
+            LoadRunner runner = new LoadRunner();
+            logger.info("Starting {} load against {} for {} s", model, ConfigManager.getBaseUrl(),
+                    TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+            long start = System.nanoTime();
+            if (model.equals("open")) {
+                runner.runOpen(rate, durationNanos);
+            } else {
+                runner.runClosed(users, durationNanos);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Map<String, Map<String, Object>> summary = runner.stats.summary(elapsed);
+            System.out.println(LoadStats.toTable(summary));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("model", model);
+            report.put(model.equals("open") ? "ratePerSec" : "users", model.equals("open") ? rate : users);
+            report.put("target", ConfigManager.getBaseUrl());
+            report.put("elapsedSec", elapsed / 1e9);
+            report.put("endpoints", summary);
+            if (RequestScheduler.isEnabled()) {
+                Map<String, Map<String, Object>> throttling = RequestScheduler.summary();
+                System.out.println(RequestScheduler.toTable(throttling));
+                report.put("rateLimit", throttling);
+            }
+            LoadStats.writeJson(report, reportFile);
+            logger.info("Load report written to {}", reportFile);
+        } finally {
+            if (stub != null) {
+                stub.stop();
+            }
+        }
+    }
+
+    /**
+     * Closed model: a fixed number of users, each running the flow in a loop.
+     */
+    void runClosed(int users, long durationNanos) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        long deadline = System.nanoTime() + durationNanos;
+        for (int i = 0; i < users; i++) {
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long flowStart = System.nanoTime();
+                    boolean ok = runFlow();
+                    stats.record(FLOW, System.nanoTime() - flowStart, ok);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Open model: flows are started at a constant arrival rate on an unbounded pool.
+     */
+    void runOpen(int ratePerSec, long durationNanos) throws InterruptedException {
+        ExecutorService pool = Executors.newCachedThreadPool();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSec;
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= deadline) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            pool.execute(() -> {
+                boolean ok = runFlow();
+                stats.record(FLOW, System.nanoTime() - scheduled, ok);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Runs create, retrieve, update and delete for one pet.
+     *
+     * @return true if every request returned 200
+     */
+    boolean runFlow() {
+        Pet pet = population.pet(nextPet.getAndIncrement());
+
+        Response created = timed("POST /pet", () -> ApiUtils.post("/pet", pet));
+        if (created == null || created.getStatusCode() != 200) {
+            return false;
+        }
+        long id = created.as(Pet.class).getId();
+
+        Response retrieved = timed("GET /pet/{id}", () -> ApiUtils.get("/pet/" + id));
+
+        pet.setId(id);
+        pet.setStatus("sold");
+        Response updated = timed("PUT /pet", () -> ApiUtils.put("/pet", pet));
+
+        Response deleted = timed("DELETE /pet/{id}", () -> ApiUtils.delete("/pet/" + id));
+
+        return isOk(retrieved) && isOk(updated) && isOk(deleted);
+    }
+
+    private Response timed(String endpoint, Supplier<Response> call) {
+        long start = System.nanoTime();
+        try {
+            Response response = call.get();
+            stats.record(endpoint, System.nanoTime() - start, isOk(response));
+            return response;
+        } catch (RuntimeException e) {
+            stats.record(endpoint, System.nanoTime() - start, false);
+            logger.debug("{} failed: {}", endpoint, e.toString());
+            return null;
+        }
+    }
+
+    private static boolean isOk(Response response) {
+        return response != null && response.getStatusCode() == 200;
+    }
+}
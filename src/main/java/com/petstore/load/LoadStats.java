@@ -0,0 +1,99 @@
+package com.petstore.load;
+
+import com.petstore.utils.JsonUtils;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadStats collects latency histograms and error counts per endpoint during a load run.
+ *
+ * <p>Recording is lock-free: each endpoint has a ConcurrentHistogram (microsecond
+ * resolution, 3 significant digits) and a LongAdder for errors, so many load
+ * threads can record at once without contention.</p>
+ */
+public class LoadStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records one request outcome.
+     *
+     * @param endpoint     Endpoint label (e.g., "GET /pet/{id}")
+     * @param latencyNanos Request latency in nanoseconds
+     * @param success      Whether the request returned the expected status
+     */
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+        stats.latency.recordValue(Math.min(MAX_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1000)));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Builds the report as an ordered map: endpoint label to its metrics.
+     *
+     * @param elapsedNanos Wall time of the measured window, used for throughput
+     */
+    public Map<String, Map<String, Object>> summary(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Histogram h = entry.getValue().latency.copy();
+                    long count = h.getTotalCount();
+                    long errors = entry.getValue().errors.sum();
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("count", count);
+                    row.put("errors", errors);
+                    row.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+                    row.put("throughputPerSec", seconds == 0 ? 0.0 : count / seconds);
+                    row.put("p50Ms", h.getValueAtPercentile(50) / 1000.0);
+                    row.put("p95Ms", h.getValueAtPercentile(95) / 1000.0);
+                    row.put("p99Ms", h.getValueAtPercentile(99) / 1000.0);
+                    row.put("maxMs", h.getMaxValue() / 1000.0);
+                    summary.put(entry.getKey(), row);
+                });
+        return summary;
+    }
+
+    /**
+     * Formats the summary as a fixed-width table for the console.
+     */
+    public static String toTable(Map<String, Map<String, Object>> summary) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "Errors", "Err%", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        summary.forEach((endpoint, row) -> sb.append(String.format("%-22s %9d %7d %6.2f%% %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, row.get("count"), row.get("errors"), (double) row.get("errorRate") * 100,
+                row.get("throughputPerSec"), row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"))));
+        return sb.toString();
+    }
+
+    /**
+     * Writes the summary as JSON.
+     */
+    public static void writeJson(Map<String, ?> report, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        JsonUtils.mapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    private static class Endpoint {
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
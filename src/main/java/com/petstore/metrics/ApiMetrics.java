@@ -0,0 +1,222 @@
+package com.petstore.metrics;
+
+import com.petstore.utils.JsonUtils;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ApiMetrics records latency and outcome of every request sent through the API transports.
+ *
+ * <p>Series are keyed by HTTP method and normalized endpoint (see
+ * {@link EndpointNormalizer}). Each series has an HdrHistogram ConcurrentHistogram
+ * with microsecond resolution, plus LongAdder counters for requests, errors, and
+ * responses by status class. Recording does no locking and allocates nothing once the
+ * series exists.</p>
+ *
+ * <p>A thread can also open a {@link Capture} (for example, one per Cucumber scenario).
+ * Requests recorded while the capture is open are added to it as well, so per-scenario
+ * figures can be attached to the report.</p>
+ */
+public class ApiMetrics {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private static final Map<String, Series> SERIES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Capture> CAPTURE = new ThreadLocal<>();
+
+    /**
+     * Records one request.
+     *
+     * @param method       HTTP method (e.g., "GET")
+     * @param path         Request path as sent (e.g., "/pet/123")
+     * @param status       HTTP status code, or -1 if the request failed without a response
+     * @param latencyNanos Time from send to fully read response
+     */
+    public static void record(String method, String path, int status, long latencyNanos) {
+        record(method, path, status, latencyNanos, CAPTURE.get());
+    }
+
+    /**
+     * Records one request into the global series and into the given capture, if any.
+     * Use this overload when the response completes on a different thread than the caller.
+     */
+    public static void record(String method, String path, int status, long latencyNanos, Capture capture) {
+        String key = EndpointNormalizer.key(method, path);
+        SERIES.computeIfAbsent(key, k -> new Series()).record(status, latencyNanos);
+        if (capture != null) {
+            capture.record(key, status, latencyNanos);
+        }
+    }
+
+    /**
+     * Opens a capture on the current thread; requests recorded on this thread are added to it.
+     */
+    public static Capture startCapture() {
+        Capture capture = new Capture();
+        CAPTURE.set(capture);
+        return capture;
+    }
+
+    /**
+     * Returns the capture open on the current thread, or null.
+     */
+    public static Capture currentCapture() {
+        return CAPTURE.get();
+    }
+
+    /**
+     * Closes the capture on the current thread and returns it.
+     */
+    public static Capture stopCapture() {
+        Capture capture = CAPTURE.get();
+        CAPTURE.remove();
+        return capture;
+    }
+
+    /**
+     * Returns a point-in-time summary per endpoint key, sorted by key.
+     */
+    public static Map<String, Map<String, Object>> summary() {
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        new TreeMap<>(SERIES).forEach((key, series) -> summary.put(key, series.summary()));
+        return summary;
+    }
+
+    /**
+     * Writes api-metrics.json and api-metrics.csv to the directory and returns the summary table.
+     *
+     * @param dir Output directory (created if missing)
+     * @return Human-readable summary table
+     */
+    public static String export(File dir) throws IOException {
+        Map<String, Map<String, Object>> summary = summary();
+        dir.mkdirs();
+        JsonUtils.mapper().writerWithDefaultPrettyPrinter().writeValue(new File(dir, "api-metrics.json"), summary);
+
+        try (PrintWriter csv = new PrintWriter(new File(dir, "api-metrics.csv"), StandardCharsets.UTF_8)) {
+            csv.println("endpoint,count,errors,status2xx,status4xx,status5xx,meanMs,p50Ms,p90Ms,p99Ms,maxMs");
+            summary.forEach((key, row) -> csv.println(String.join(",", "\"" + key + "\"",
+                    String.valueOf(row.get("count")), String.valueOf(row.get("errors")),
+                    String.valueOf(row.get("status2xx")), String.valueOf(row.get("status4xx")),
+                    String.valueOf(row.get("status5xx")), String.valueOf(row.get("meanMs")),
+                    String.valueOf(row.get("p50Ms")), String.valueOf(row.get("p90Ms")),
+                    String.valueOf(row.get("p99Ms")), String.valueOf(row.get("maxMs")))));
+        }
+        return toTable(summary);
+    }
+
+    /**
+     * Formats a summary as a fixed-width table.
+     */
+    public static String toTable(Map<String, Map<String, Object>> summary) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %7s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "Errors", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        summary.forEach((key, row) -> sb.append(String.format("%-28s %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                key, row.get("count"), row.get("errors"), row.get("meanMs"), row.get("p50Ms"),
+                row.get("p90Ms"), row.get("p99Ms"), row.get("maxMs"))));
+        return sb.toString();
+    }
+
+    /**
+     * Discards all recorded series.
+     */
+    public static void reset() {
+        SERIES.clear();
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(MAX_TRACKABLE_MICROS, Math.max(1, nanos / 1000));
+    }
+
+    private static boolean isError(int status) {
+        return status < 0 || status >= 500;
+    }
+
+    /**
+     * Global metrics for one endpoint key.
+     */
+    private static class Series {
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder status2xx = new LongAdder();
+        private final LongAdder status4xx = new LongAdder();
+        private final LongAdder status5xx = new LongAdder();
+
+        void record(int status, long latencyNanos) {
+            latency.recordValue(toMicros(latencyNanos));
+            if (status >= 200 && status < 300) {
+                status2xx.increment();
+            } else if (status >= 400 && status < 500) {
+                status4xx.increment();
+            } else if (status >= 500) {
+                status5xx.increment();
+            }
+            if (isError(status)) {
+                errors.increment();
+            }
+        }
+
+        Map<String, Object> summary() {
+            Histogram h = latency.copy();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", h.getTotalCount());
+            row.put("errors", errors.sum());
+            row.put("status2xx", status2xx.sum());
+            row.put("status4xx", status4xx.sum());
+            row.put("status5xx", status5xx.sum());
+            row.put("meanMs", h.getMean() / 1000.0);
+            row.put("p50Ms", h.getValueAtPercentile(50) / 1000.0);
+            row.put("p90Ms", h.getValueAtPercentile(90) / 1000.0);
+            row.put("p99Ms", h.getValueAtPercentile(99) / 1000.0);
+            row.put("maxMs", h.getMaxValue() / 1000.0);
+            return row;
+        }
+    }
+
+    /**
+     * Request metrics collected while a capture was open, e.g. during one scenario.
+     * Small and short-lived, so a synchronized map is enough.
+     */
+    public static class Capture {
+        private final Map<String, long[]> byKey = new TreeMap<>();
+
+        // long[]: count, errors, totalNanos, maxNanos
+        synchronized void record(String key, int status, long latencyNanos) {
+            long[] stats = byKey.computeIfAbsent(key, k -> new long[4]);
+            stats[0]++;
+            if (isError(status)) {
+                stats[1]++;
+            }
+            stats[2] += latencyNanos;
+            stats[3] = Math.max(stats[3], latencyNanos);
+        }
+
+        /**
+         * Returns count, errors, total and max latency per endpoint key.
+         */
+        public synchronized Map<String, Map<String, Object>> summary() {
+            Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+            byKey.forEach((key, stats) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("count", stats[0]);
+                row.put("errors", stats[1]);
+                row.put("totalMs", stats[2] / 1e6);
+                row.put("maxMs", stats[3] / 1e6);
+                summary.put(key, row);
+            });
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.petstore.metrics;
+
+/**
+ * EndpointNormalizer turns concrete request paths into low-cardinality endpoint keys.
+ *
+ * <p>Numeric path segments become {@code {id}} and the query string is dropped, so
+ * {@code /pet/123} becomes {@code /pet/{id}} and
+ * {@code /pet/findByStatus?status=sold} becomes {@code /pet/findByStatus}. This keeps
+ * the number of metric series bounded no matter how many pets a run creates.</p>
+ */
+public class EndpointNormalizer {
+
+    /**
+     * Normalizes a request path.
+     *
+     * @param path Request path relative to the base URL (e.g., "/pet/123")
+     * @return Normalized endpoint (e.g., "/pet/{id}")
+     */
+    public static String normalize(String path) {
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        StringBuilder sb = new StringBuilder(end + 4);
+        int segmentStart = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || path.charAt(i) == '/') {
+                if (i > segmentStart && isNumeric(path, segmentStart, i)) {
+                    sb.append("{id}");
+                } else {
+                    sb.append(path, segmentStart, i);
+                }
+                if (i < end) {
+                    sb.append('/');
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the metric key for a request, e.g. "GET /pet/{id}".
+     */
+    public static String key(String method, String path) {
+        return method + " " + normalize(path);
+    }
+
+    private static boolean isNumeric(String s, int from, int to) {
+        int start = from;
+        if (s.charAt(start) == '-' && to - from > 1) {
+            start++;
+        }
+        for (int i = start; i < to; i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
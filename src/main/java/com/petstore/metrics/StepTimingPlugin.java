@@ -0,0 +1,198 @@
+package com.petstore.metrics;
+
+import com.petstore.config.ConfigManager;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StepTimingPlugin is a Cucumber plugin that shows where the time of each step goes.
+ *
+ * <p>Every step and hook is split into three parts:</p>
+ * <ul>
+ *   <li><b>http</b>: blocking HTTP exchanges, reported by the transports,</li>
+ *   <li><b>wait</b>: sleeping in polling loops and retry backoff,</li>
+ *   <li><b>assert</b>: the rest of the wall time, i.e. the step's own code, mostly assertions
+ *   and response mapping.</li>
+ * </ul>
+ *
+ * <p>The split comes from a {@link TimingProbe} started on the scenario's thread when a
+ * step starts. As a ConcurrentEventListener the plugin receives step events on that
+ * same thread, so it also works with parallel scenarios.</p>
+ *
+ * <p>When the run finishes, it writes to the output directory (default
+ * {@code target/profile}):</p>
+ * <ul>
+ *   <li>{@code steps.collapsed}: collapsed stacks
+ *   ({@code feature;scenario;step;http 1234}, in microseconds) for flamegraph.pl or
+ *   speedscope,</li>
+ *   <li>{@code slowest-steps.txt}: the {@code profile.topN} steps with the most total time,
+ *   with their http/wait/assert shares. The table is also logged.</li>
+ * </ul>
+ *
+ * <p>Register it with {@code com.petstore.metrics.StepTimingPlugin:<dir>} in the Cucumber plugin list.</p>
+ */
+public class StepTimingPlugin implements ConcurrentEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepTimingPlugin.class);
+
+    private final File outputDir;
+
+    // Collapsed stack without the leaf -> accumulated parts
+    private final Map<String, StepStats> stacks = new ConcurrentHashMap<>();
+    // Step text -> accumulated parts across scenarios
+    private final Map<String, StepStats> steps = new ConcurrentHashMap<>();
+
+    public StepTimingPlugin() {
+        this(new File("target/profile"));
+    }
+
+    public StepTimingPlugin(File outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepStarted.class, event -> TimingProbe.start());
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> write());
+    }
+
+    private void onStepFinished(TestStepFinished event) {
+        TimingProbe.Probe probe = TimingProbe.stop();
+        if (probe == null) {
+            return;
+        }
+        long wallMicros = TimeUnit.NANOSECONDS.toMicros(event.getResult().getDuration().toNanos());
+        long httpMicros = Math.min(probe.getHttpMicros(), wallMicros);
+        long waitMicros = Math.min(probe.getWaitMicros(), wallMicros - httpMicros);
+
+        String step = describe(event.getTestStep());
+        String stack = frame(featureName(event.getTestCase())) + ';' + frame(event.getTestCase().getName())
+                + ';' + frame(step);
+        stacks.computeIfAbsent(stack, k -> new StepStats()).add(wallMicros, httpMicros, waitMicros);
+        steps.computeIfAbsent(step, k -> new StepStats()).add(wallMicros, httpMicros, waitMicros);
+    }
+
+    private void write() {
+        outputDir.mkdirs();
+        try {
+            try (PrintWriter out = new PrintWriter(new File(outputDir, "steps.collapsed"), StandardCharsets.UTF_8)) {
+                stacks.forEach((stack, stats) -> {
+                    long[] parts = stats.snapshot();
+                    printFrame(out, stack, "http", parts[2]);
+                    printFrame(out, stack, "wait", parts[3]);
+                    printFrame(out, stack, "assert", parts[1] - parts[2] - parts[3]);
+                });
+            }
+            String table = slowestSteps(ConfigManager.get().getInt("profile.topN"));
+            try (PrintWriter out = new PrintWriter(new File(outputDir, "slowest-steps.txt"), StandardCharsets.UTF_8)) {
+                out.print(table);
+            }
+            logger.info("Slowest steps (profile in {}):\n{}", outputDir, table);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write step profile to " + outputDir, e);
+        }
+    }
+
+    private String slowestSteps(int topN) {
+        List<Map.Entry<String, long[]>> rows = new ArrayList<>();
+        steps.forEach((step, stats) -> rows.add(Map.entry(step, stats.snapshot())));
+        rows.sort(Comparator.comparingLong((Map.Entry<String, long[]> row) -> row.getValue()[1]).reversed());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-55s %6s %10s %9s %6s %6s %7s%n",
+                "step", "calls", "totalMs", "maxMs", "http%", "wait%", "assert%"));
+        for (Map.Entry<String, long[]> row : rows.subList(0, Math.min(topN, rows.size()))) {
+            long[] p = row.getValue();
+            long total = p[1];
+            sb.append(String.format("%-55s %6d %10.1f %9.1f %6.1f %6.1f %7.1f%n",
+                    truncate(row.getKey(), 55), p[0], total / 1000.0, p[4] / 1000.0,
+                    percent(p[2], total), percent(p[3], total), percent(total - p[2] - p[3], total)));
+        }
+        return sb.toString();
+    }
+
+    private static void printFrame(PrintWriter out, String stack, String leaf, long micros) {
+        if (micros > 0) {
+            out.println(stack + ';' + leaf + ' ' + micros);
+        }
+    }
+
+    private static String describe(TestStep step) {
+        if (step instanceof PickleStepTestStep) {
+            PickleStepTestStep pickleStep = (PickleStepTestStep) step;
+            return pickleStep.getStep().getKeyword().trim() + ' ' + pickleStep.getStep().getText();
+        }
+        if (step instanceof HookTestStep) {
+            // "com.petstore.stepdefinitions.PetSteps.cleanup()" -> "@AFTER PetSteps.cleanup"
+            String location = step.getCodeLocation();
+            int paren = location.indexOf('(');
+            String qualified = paren < 0 ? location : location.substring(0, paren);
+            int classStart = qualified.lastIndexOf('.', qualified.lastIndexOf('.') - 1) + 1;
+            return '@' + ((HookTestStep) step).getHookType().name() + ' ' + qualified.substring(classStart);
+        }
+        return step.getCodeLocation();
+    }
+
+    private static String featureName(TestCase testCase) {
+        String path = testCase.getUri().toString();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    // Collapsed stacks use ';' between frames and ' ' before the value
+    private static String frame(String name) {
+        return name.replace(';', ',').replace('\n', ' ');
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max - 3) + "...";
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+    /**
+     * Accumulated time of one step or stack: calls, wall, http, wait and max wall, in microseconds.
+     */
+    private static class StepStats {
+        private long calls;
+        private long wallMicros;
+        private long httpMicros;
+        private long waitMicros;
+        private long maxMicros;
+
+        synchronized void add(long wall, long http, long wait) {
+            calls++;
+            wallMicros += wall;
+            httpMicros += http;
+            waitMicros += wait;
+            maxMicros = Math.max(maxMicros, wall);
+        }
+
+        synchronized long[] snapshot() {
+            return new long[] {calls, wallMicros, httpMicros, waitMicros, maxMicros};
+        }
+    }
+}
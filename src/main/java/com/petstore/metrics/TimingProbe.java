@@ -0,0 +1,104 @@
+package com.petstore.metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimingProbe splits the time spent on one thread into HTTP time and wait time.
+ *
+ * <p>A probe is started on a thread with {@link #start()} (the {@link StepTimingPlugin}
+ * does this per Cucumber step). While it is active, the transports report each request
+ * with {@link #addHttp(long)}, and polling and retry code sleeps through
+ * {@link #sleep(long)}. Whatever is left of the wall time was spent in the caller's own
+ * code, which for a step is mostly assertions.</p>
+ *
+ * <p>Without an active probe every method is a cheap no-op, so load runs and
+ * benchmarks are unaffected. A probe is only touched by its own thread, so it needs no
+ * synchronization.</p>
+ */
+public class TimingProbe {
+
+    private static final ThreadLocal<Probe> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Starts a fresh probe on the current thread, replacing any previous one.
+     */
+    public static Probe start() {
+        Probe probe = new Probe();
+        CURRENT.set(probe);
+        return probe;
+    }
+
+    /**
+     * Stops the probe on the current thread and returns it, or null if none was started.
+     */
+    public static Probe stop() {
+        Probe probe = CURRENT.get();
+        CURRENT.remove();
+        return probe;
+    }
+
+    /**
+     * Adds the duration of one blocking HTTP exchange to the current thread's probe.
+     */
+    public static void addHttp(long nanos) {
+        Probe probe = CURRENT.get();
+        if (probe != null) {
+            probe.httpNanos += nanos;
+        }
+    }
+
+    /**
+     * Adds time spent deliberately waiting (backoff, polling delay) to the current thread's probe.
+     */
+    public static void addWait(long nanos) {
+        Probe probe = CURRENT.get();
+        if (probe != null) {
+            probe.waitNanos += nanos;
+        }
+    }
+
+    /**
+     * Sleeps and counts the time slept as wait time.
+     */
+    public static void sleep(long millis) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(millis);
+        } finally {
+            addWait(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Blocks on an asynchronous request and counts the time blocked as HTTP time.
+     * Requests running concurrently are counted once, by the time the caller was actually blocked.
+     *
+     * @param future Future of one or more requests
+     * @return The future's result
+     */
+    public static <T> T joinHttp(CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        try {
+            return future.join();
+        } finally {
+            addHttp(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * HTTP and wait time accumulated on one thread since {@link #start()}.
+     */
+    public static class Probe {
+        private long httpNanos;
+        private long waitNanos;
+
+        public long getHttpNanos() { return httpNanos; }
+
+        public long getWaitNanos() { return waitNanos; }
+
+        public long getHttpMicros() { return TimeUnit.NANOSECONDS.toMicros(httpNanos); }
+
+        public long getWaitMicros() { return TimeUnit.NANOSECONDS.toMicros(waitNanos); }
+    }
+}
@@ -0,0 +1,79 @@
+package com.petstore.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PetTemplate is an immutable pet record, used for fixture data and expected state.
+ *
+ * <p>Because it cannot change, one instance can be shared by every scenario and thread
+ * without copying. {@link #toPet(Long)} turns it into a mutable {@link Pet} for a
+ * request; the Pet gets its own copy of the photo URLs.</p>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class PetTemplate {
+
+    private static final String[] NO_PHOTOS = new String[0];
+
+    private final Long id;
+    private final String name;
+    private final String status;
+    private final String[] photoUrls;
+
+    @JsonCreator
+    public PetTemplate(@JsonProperty("id") Long id,
+                       @JsonProperty("name") String name,
+                       @JsonProperty("status") String status,
+                       @JsonProperty("photoUrls") String[] photoUrls) {
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.photoUrls = photoUrls == null ? NO_PHOTOS : photoUrls.clone();
+    }
+
+    /**
+     * Captures the current state of a mutable Pet, copying its photo URLs.
+     */
+    public static PetTemplate of(Pet pet) {
+        return new PetTemplate(pet.getId(), pet.getName(), pet.getStatus(), pet.getPhotoUrls());
+    }
+
+    /**
+     * Returns a new mutable Pet with this template's fields and the given ID.
+     */
+    public Pet toPet(Long id) {
+        Pet pet = new Pet();
+        pet.setId(id);
+        pet.setName(name);
+        pet.setStatus(status);
+        pet.setPhotoUrls(photoUrls.clone()); // the template's array must not escape
+        return pet;
+    }
+
+    /**
+     * Returns a new mutable Pet with this template's fields, including its ID.
+     */
+    public Pet toPet() {
+        return toPet(id);
+    }
+
+    public Long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getStatus() { return status; }
+
+    public List<String> getPhotoUrls() { return Collections.unmodifiableList(Arrays.asList(photoUrls)); }
+
+    /**
+     * Returns true if the given array holds the same photo URLs, in order.
+     */
+    public boolean hasPhotoUrls(String[] urls) {
+        return Arrays.equals(photoUrls, urls == null ? NO_PHOTOS : urls);
+    }
+}
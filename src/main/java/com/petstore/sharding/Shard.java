@@ -0,0 +1,54 @@
+package com.petstore.sharding;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Shard describes which part of the suite this JVM runs, from the {@code shard.*} keys.
+ *
+ * <p>{@code shard.total} is the number of shards and {@code shard.index} (0-based) the
+ * one this process runs. With the default total of 1 the suite is not sharded and
+ * reports go to {@code target/} as before. A sharded run writes its reports to
+ * {@code <shard.outputRoot>/shard-<index>} so shards on one machine do not overwrite
+ * each other.</p>
+ */
+public class Shard {
+
+    public static int index() {
+        return ConfigManager.get().getInt("shard.index");
+    }
+
+    public static int total() {
+        return ConfigManager.get().getInt("shard.total");
+    }
+
+    public static boolean isSharded() {
+        return total() > 1;
+    }
+
+    public static String strategy() {
+        return ConfigManager.get().getString("shard.strategy");
+    }
+
+    /**
+     * Returns the scenario timing history used by the duration strategy.
+     */
+    public static Path historyFile() {
+        return Paths.get(ConfigManager.get().getString("shard.history"));
+    }
+
+    /**
+     * Returns the directory for this process's reports: {@code target} or the shard's own directory.
+     */
+    public static File outputDir() {
+        PetStoreConfig config = ConfigManager.get();
+        if (!isSharded()) {
+            return new File("target");
+        }
+        return new File(config.getString("shard.outputRoot"), "shard-" + index());
+    }
+}
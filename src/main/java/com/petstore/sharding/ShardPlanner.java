@@ -0,0 +1,202 @@
+package com.petstore.sharding;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.petstore.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ShardPlanner splits the scenarios of a suite deterministically across N shards.
+ *
+ * <p>Scenarios are found by scanning the feature files for {@code Scenario:} lines and
+ * the example rows of {@code Scenario Outline:} tables. Each is identified by
+ * {@code path:line}, which is also the form Cucumber accepts in
+ * {@code cucumber.features} to run exactly that scenario (or outline row). Only English
+ * Gherkin keywords are recognized.</p>
+ *
+ * <p>Two strategies are supported:</p>
+ * <ul>
+ *   <li>{@code round-robin}: scenarios sorted by id, scenario {@code i} goes to shard {@code i % N},</li>
+ *   <li>{@code duration} (default): longest processing time first. Scenarios are sorted by
+ *   their duration in the timing history, longest first, and each goes to the shard with
+ *   the least total so far. Scenarios without history count as the mean of the known ones.
+ *   Without any history this degrades to round-robin.</li>
+ * </ul>
+ *
+ * <p>Every shard computes the same plan from the same inputs, so N processes can each
+ * pick their own part without talking to each other.</p>
+ */
+public class ShardPlanner {
+
+    private static final TypeReference<TreeMap<String, Long>> HISTORY_TYPE = new TypeReference<>() { };
+
+    /**
+     * Finds every scenario and outline example row under the given feature files or directories.
+     *
+     * @param featureRoots Filesystem paths of feature files or directories
+     * @return Scenario ids ("path:line"), sorted
+     */
+    public static List<String> discover(List<String> featureRoots) {
+        List<String> scenarios = new ArrayList<>();
+        for (String root : featureRoots) {
+            if (root.startsWith("classpath:")) {
+                throw new IllegalArgumentException("Sharding needs feature paths on the filesystem, not " + root);
+            }
+            Path path = Paths.get(root.startsWith("file:") ? root.substring("file:".length()) : root);
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path file : files.filter(f -> f.toString().endsWith(".feature")).sorted()
+                        .collect(Collectors.toList())) {
+                    scenarios.addAll(scan(file));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read features under " + root, e);
+            }
+        }
+        Collections.sort(scenarios);
+        return scenarios;
+    }
+
+    /**
+     * Splits scenarios into {@code total} shards.
+     *
+     * @param scenarios Scenario ids
+     * @param total     Number of shards (at least 1)
+     * @param strategy  "round-robin" or "duration"
+     * @param historyMs Previous durations by scenario id; may be empty
+     * @return One list of scenario ids per shard, each sorted
+     */
+    public static List<List<String>> plan(List<String> scenarios, int total, String strategy,
+                                          Map<String, Long> historyMs) {
+        if (total < 1) {
+            throw new IllegalArgumentException("Shard total must be at least 1: " + total);
+        }
+        List<String> sorted = new ArrayList<>(scenarios);
+        Collections.sort(sorted);
+        List<List<String>> shards = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            shards.add(new ArrayList<>());
+        }
+
+        if ("round-robin".equals(strategy)) {
+            for (int i = 0; i < sorted.size(); i++) {
+                shards.get(i % total).add(sorted.get(i));
+            }
+        } else if ("duration".equals(strategy)) {
+            long known = sorted.stream().filter(historyMs::containsKey).count();
+            long fallback = known == 0 ? 1
+                    : sorted.stream().filter(historyMs::containsKey).mapToLong(historyMs::get).sum() / known;
+            // Longest first; ties keep id order so the plan is the same on every shard
+            sorted.sort(Comparator.comparingLong((String id) -> historyMs.getOrDefault(id, fallback)).reversed());
+
+            long[] load = new long[total];
+            PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(
+                    Comparator.comparingLong((Integer shard) -> load[shard]).thenComparingInt(shard -> shard));
+            for (int i = 0; i < total; i++) {
+                leastLoaded.add(i);
+            }
+            for (String id : sorted) {
+                int shard = leastLoaded.poll();
+                shards.get(shard).add(id);
+                load[shard] += Math.max(1, historyMs.getOrDefault(id, fallback));
+                leastLoaded.add(shard);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown shard strategy '" + strategy
+                    + "', expected round-robin or duration");
+        }
+
+        for (List<String> shard : shards) {
+            Collections.sort(shard);
+        }
+        return shards;
+    }
+
+    /**
+     * Reads scenario durations written by {@link ShardReportMerger}; empty if the file does not exist.
+     */
+    public static Map<String, Long> readHistory(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new TreeMap<>();
+        }
+        try {
+            return JsonUtils.mapper().readValue(file.toFile(), HISTORY_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read shard timing history " + file, e);
+        }
+    }
+
+    /**
+     * Writes scenario durations, sorted by scenario id.
+     */
+    public static void writeHistory(Path file, Map<String, Long> historyMs) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            JsonUtils.mapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), new TreeMap<>(historyMs));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write shard timing history " + file, e);
+        }
+    }
+
+    // Scenario lines and outline example rows (not the header row) of one feature file
+    private static List<String> scan(Path file) throws IOException {
+        String prefix = file.toString().replace('\\', '/') + ':';
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<String> scenarios = new ArrayList<>();
+
+        boolean inOutline = false;
+        boolean inExamples = false;
+        boolean headerSeen = false;
+        boolean inDocString = false;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.startsWith("\"\"\"") || line.startsWith("```")) {
+                inDocString = !inDocString;
+                continue;
+            }
+            if (inDocString || line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("Scenario Outline:") || line.startsWith("Scenario Template:")) {
+                inOutline = true;
+                inExamples = false;
+            } else if (line.startsWith("Scenario:") || line.startsWith("Example:")) {
+                scenarios.add(prefix + (i + 1));
+                inOutline = false;
+                inExamples = false;
+            } else if (line.startsWith("Background:") || line.startsWith("Rule:") || line.startsWith("Feature:")) {
+                inOutline = false;
+                inExamples = false;
+            } else if (inOutline && (line.startsWith("Examples:") || line.startsWith("Scenarios:"))) {
+                inExamples = true;
+                headerSeen = false;
+            } else if (inExamples && line.startsWith("|")) {
+                if (headerSeen) {
+                    scenarios.add(prefix + (i + 1));
+                } else {
+                    headerSeen = true;
+                }
+            } else if (!line.startsWith("@")) {
+                // A step or description ends the current examples table
+                inExamples = false;
+            }
+        }
+        return scenarios;
+    }
+}
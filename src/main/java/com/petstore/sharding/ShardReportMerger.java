@@ -0,0 +1,206 @@
+package com.petstore.sharding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.petstore.utils.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ShardReportMerger combines the outputs of a sharded run into single reports.
+ *
+ * <p>It reads {@code shard-*}/ under the shard output root and writes:</p>
+ * <ul>
+ *   <li>{@code cucumber-report.json}: the features of all shards, with scenarios of the
+ *   same feature file merged and ordered by line,</li>
+ *   <li>{@code profile/steps.collapsed}: the step timing stacks of all shards, summed,</li>
+ *   <li>the timing history ({@code shard.history}): each scenario's duration in this run,
+ *   for the duration strategy of the next run.</li>
+ * </ul>
+ *
+ * <p>It also logs each shard's scenario count, failures and busy time, and the imbalance
+ * between the slowest shard and the mean.</p>
+ *
+ * <pre>
+ * java -cp ... com.petstore.sharding.ShardReportMerger [shardRoot] [outputDir]
+ * </pre>
+ */
+public class ShardReportMerger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardReportMerger.class);
+
+    public static void main(String[] args) throws IOException {
+        File shardRoot = new File(args.length > 0 ? args[0] : "target/shards");
+        File outputDir = new File(args.length > 1 ? args[1] : "target");
+        int failed = merge(shardRoot, outputDir, Shard.historyFile());
+        if (failed > 0) {
+            logger.warn("{} scenario(s) failed across shards", failed);
+        }
+    }
+
+    /**
+     * Merges every shard under {@code shardRoot} into {@code outputDir} and updates the timing history.
+     *
+     * @return Number of failed scenarios across all shards
+     */
+    public static int merge(File shardRoot, File outputDir, Path historyFile) throws IOException {
+        List<File> shards = shardDirs(shardRoot);
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("No shard-* directories under " + shardRoot);
+        }
+
+        Map<String, ObjectNode> features = new LinkedHashMap<>();
+        Map<String, Long> durationsMs = new TreeMap<>();
+        Map<String, Long> stacks = new TreeMap<>();
+        int failedTotal = 0;
+        long busiestMs = 0;
+        long busyTotalMs = 0;
+
+        for (File shard : shards) {
+            File json = new File(shard, "cucumber-report.json");
+            int scenarios = 0;
+            int failed = 0;
+            long busyMs = 0;
+            if (json.isFile()) {
+                for (JsonNode feature : JsonUtils.mapper().readTree(json)) {
+                    String uri = feature.path("uri").asText();
+                    ObjectNode merged = features.computeIfAbsent(uri, k -> {
+                        ObjectNode copy = feature.deepCopy();
+                        copy.putArray("elements");
+                        return copy;
+                    });
+                    for (JsonNode element : feature.path("elements")) {
+                        merged.withArray("elements").add(element);
+                        if (!"scenario".equals(element.path("type").asText())) {
+                            continue;
+                        }
+                        long ms = TimeUnit.NANOSECONDS.toMillis(durationNanos(element));
+                        durationsMs.put(scenarioId(uri, element), ms);
+                        busyMs += ms;
+                        scenarios++;
+                        if (isFailed(element)) {
+                            failed++;
+                        }
+                    }
+                }
+            } else {
+                logger.warn("{} has no cucumber-report.json; did the shard run?", shard);
+            }
+            mergeStacks(new File(shard, "profile/steps.collapsed"), stacks);
+            failedTotal += failed;
+            busiestMs = Math.max(busiestMs, busyMs);
+            busyTotalMs += busyMs;
+            logger.info("{}: {} scenario(s), {} failed, {} ms busy", shard.getName(), scenarios, failed, busyMs);
+        }
+
+        ArrayNode report = JsonUtils.mapper().createArrayNode();
+        for (ObjectNode feature : features.values()) {
+            List<JsonNode> elements = new ArrayList<>();
+            feature.withArray("elements").forEach(elements::add);
+            elements.sort(Comparator.comparingInt(e -> e.path("line").asInt()));
+            ArrayNode sorted = feature.putArray("elements");
+            elements.forEach(sorted::add);
+            report.add(feature);
+        }
+        outputDir.mkdirs();
+        JsonUtils.mapper().writeValue(new File(outputDir, "cucumber-report.json"), report);
+
+        if (!stacks.isEmpty()) {
+            File profile = new File(outputDir, "profile");
+            profile.mkdirs();
+            try (PrintWriter out = new PrintWriter(new File(profile, "steps.collapsed"), StandardCharsets.UTF_8)) {
+                stacks.forEach((stack, micros) -> out.println(stack + ' ' + micros));
+            }
+        }
+
+        Map<String, Long> history = ShardPlanner.readHistory(historyFile);
+        history.putAll(durationsMs);
+        ShardPlanner.writeHistory(historyFile, history);
+
+        if (shards.size() > 1 && busyTotalMs > 0) {
+            long meanMs = busyTotalMs / shards.size();
+            logger.info("Slowest shard busy {} ms vs {} ms mean (imbalance {})", busiestMs, meanMs,
+                    String.format("%.2f", (double) busiestMs / Math.max(1, meanMs)));
+        }
+        logger.info("Merged {} shard(s) into {}; timing history for {} scenario(s) in {}",
+                shards.size(), outputDir, durationsMs.size(), historyFile);
+        return failedTotal;
+    }
+
+    private static List<File> shardDirs(File shardRoot) throws IOException {
+        if (!shardRoot.isDirectory()) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> dirs = Files.list(shardRoot.toPath())) {
+            return dirs.filter(Files::isDirectory)
+                    .filter(dir -> dir.getFileName().toString().startsWith("shard-"))
+                    .map(Path::toFile)
+                    .sorted(Comparator.comparingInt(ShardReportMerger::shardNumber))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int shardNumber(File dir) {
+        try {
+            return Integer.parseInt(dir.getName().substring("shard-".length()));
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    // "file:src/test/resources/features/PetEndpoints.feature" + line 39 -> ".../PetEndpoints.feature:39"
+    static String scenarioId(String uri, JsonNode element) {
+        String path = uri.startsWith("file:") ? uri.substring("file:".length()) : uri;
+        return path + ':' + element.path("line").asInt();
+    }
+
+    private static long durationNanos(JsonNode element) {
+        long total = 0;
+        for (String section : new String[] {"before", "steps", "after"}) {
+            for (JsonNode step : element.path(section)) {
+                total += step.path("result").path("duration").asLong();
+            }
+        }
+        return total;
+    }
+
+    private static boolean isFailed(JsonNode element) {
+        for (String section : new String[] {"before", "steps", "after"}) {
+            for (JsonNode step : element.path(section)) {
+                if ("failed".equals(step.path("result").path("status").asText())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void mergeStacks(File collapsed, Map<String, Long> stacks) throws IOException {
+        if (!collapsed.isFile()) {
+            return;
+        }
+        for (String line : Files.readAllLines(collapsed.toPath(), StandardCharsets.UTF_8)) {
+            int space = line.lastIndexOf(' ');
+            if (space > 0) {
+                stacks.merge(line.substring(0, space), Long.parseLong(line.substring(space + 1)), Long::sum);
+            }
+        }
+    }
+}
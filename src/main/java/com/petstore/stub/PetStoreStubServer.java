@@ -0,0 +1,375 @@
+package com.petstore.stub;
+
+import com.petstore.models.ErrorResponse;
+import com.petstore.models.Pet;
+import com.petstore.utils.JsonUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PetStoreStubServer is an in-process, in-memory stand-in for the PetStore /v2 API.
+ *
+ * <p>It implements the endpoints the suite uses ({@code POST/PUT /pet},
+ * {@code GET/DELETE /pet/{id}} and {@code GET /pet/findByStatus}) on top of the JDK's
+ * built-in HTTP server, with responses shaped like petstore.swagger.io. Runs against
+ * it need no network and start in milliseconds.</p>
+ *
+ * <p>Pets live in a concurrent map with a secondary index by status, so
+ * findByStatus does not scan the whole store. To reproduce the behaviour of the shared
+ * server, the stub can inject:</p>
+ * <ul>
+ *   <li>latency: a fixed delay plus random jitter on every response,</li>
+ *   <li>errors: a fraction of requests answered with 503,</li>
+ *   <li>eventual consistency: writes become visible to reads only after a delay.</li>
+ * </ul>
+ * <p>All three are off by default.</p>
+ */
+public class PetStoreStubServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PetStoreStubServer.class);
+
+    private static final String CONTEXT = "/v2";
+
+    private final Map<Long, Entry> pets = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> byStatus = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    private volatile long latencyMs;
+    private volatile long latencyJitterMs;
+    private volatile double errorRate;
+    private volatile long consistencyDelayMs;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Adds a fixed delay plus up to {@code jitterMs} of random delay to every response.
+     */
+    public PetStoreStubServer withLatency(long fixedMs, long jitterMs) {
+        this.latencyMs = fixedMs;
+        this.latencyJitterMs = jitterMs;
+        return this;
+    }
+
+    /**
+     * Answers the given fraction of requests (0.0 to 1.0) with HTTP 503.
+     */
+    public PetStoreStubServer withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Delays the visibility of writes to reads by the given time.
+     * Until then, GET and findByStatus keep returning the previous state.
+     */
+    public PetStoreStubServer withConsistencyDelay(long delayMs) {
+        this.consistencyDelayMs = delayMs;
+        return this;
+    }
+
+    /**
+     * Starts the server on the given port (0 picks a free port).
+     *
+     * @param port TCP port on the loopback interface
+     * @return this server, for chaining
+     */
+    public PetStoreStubServer start(int port) throws IOException {
+        // Without TCP_NODELAY, Nagle + delayed ACK adds ~40 ms to every keep-alive response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "petstore-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext(CONTEXT + "/pet", this::handle);
+        server.start();
+        logger.info("PetStore stub started at {} (latency={}+{} ms, errorRate={}, consistencyDelay={} ms)",
+                getBaseUrl(), latencyMs, latencyJitterMs, errorRate, consistencyDelayMs);
+        return this;
+    }
+
+    /**
+     * Stops the server and discards all stored pets.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            pets.clear();
+            byStatus.clear();
+        }
+    }
+
+    /**
+     * Returns the base URL to configure as the API root (e.g., "http://127.0.0.1:54321/v2").
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CONTEXT;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            injectLatency();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                send(exchange, 503, error(503, "unknown", "injected failure"));
+                return;
+            }
+
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath().substring(CONTEXT.length());
+
+            if (path.equals("/pet") || path.equals("/pet/")) {
+                if (method.equals("POST")) {
+                    createPet(exchange);
+                } else if (method.equals("PUT")) {
+                    updatePet(exchange);
+                } else {
+                    send(exchange, 405, null);
+                }
+            } else if (path.equals("/pet/findByStatus") && method.equals("GET")) {
+                findByStatus(exchange);
+            } else if (path.startsWith("/pet/")) {
+                Long id = parseId(path.substring("/pet/".length()));
+                if (id == null) {
+                    send(exchange, 404, error(404, "unknown", "java.lang.NumberFormatException"));
+                } else if (method.equals("GET")) {
+                    getPet(exchange, id);
+                } else if (method.equals("DELETE")) {
+                    deletePet(exchange, id);
+                } else {
+                    send(exchange, 405, null);
+                }
+            } else {
+                send(exchange, 404, null);
+            }
+        } catch (IOException e) {
+            send(exchange, 400, error(400, "unknown", "bad input"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Stub failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            send(exchange, 500, error(500, "unknown", "something bad happened"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void createPet(HttpExchange exchange) throws IOException {
+        Pet pet = readPet(exchange);
+        if (pet.getId() == null || pet.getId() == 0) {
+            pet.setId(nextId.getAndIncrement());
+        }
+        write(pet.getId(), pet);
+        send(exchange, 200, pet);
+    }
+
+    private void updatePet(HttpExchange exchange) throws IOException {
+        Pet pet = readPet(exchange);
+        if (pet.getId() == null || latest(pet.getId()) == null) {
+            send(exchange, 404, error(404, "unknown", "Pet not found"));
+            return;
+        }
+        write(pet.getId(), pet);
+        send(exchange, 200, pet);
+    }
+
+    private void getPet(HttpExchange exchange, long id) throws IOException {
+        Pet pet = visible(id);
+        if (pet == null) {
+            send(exchange, 404, error(1, "error", "Pet not found"));
+        } else {
+            send(exchange, 200, pet);
+        }
+    }
+
+    private void deletePet(HttpExchange exchange, long id) throws IOException {
+        if (latest(id) == null) {
+            send(exchange, 404, null);
+        } else {
+            write(id, null);
+            send(exchange, 200, error(200, "unknown", String.valueOf(id)));
+        }
+    }
+
+    private void findByStatus(HttpExchange exchange) throws IOException {
+        List<String> statuses = queryValues(exchange.getRequestURI().getRawQuery(), "status");
+        List<Pet> matches = new ArrayList<>();
+        for (String status : statuses) {
+            Set<Long> ids = byStatus.getOrDefault(status, Set.of());
+            for (Long id : ids) {
+                Pet pet = visible(id);
+                if (pet != null && status.equals(pet.getStatus())) {
+                    matches.add(pet);
+                } else {
+                    pruneIndex(id, status, ids);
+                }
+            }
+        }
+        send(exchange, 200, matches);
+    }
+
+    /**
+     * Stores a new state for a pet (null = deleted) and keeps the status index in step.
+     * Runs under the map's per-key lock, so concurrent writes to one pet are serialized.
+     */
+    private void write(long id, Pet pet) {
+        long now = System.nanoTime();
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(consistencyDelayMs);
+        pets.compute(id, (key, old) -> {
+            Pet before = old == null ? null : old.visibleAt(now);
+            if (pet != null && pet.getStatus() != null) {
+                byStatus.computeIfAbsent(pet.getStatus(), s -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            if (delayNanos > 0) {
+                // Readers keep seeing "before" until the write settles; stale index entries are pruned lazily
+                return new Entry(pet, before, now + delayNanos);
+            }
+            if (before != null && before.getStatus() != null
+                    && (pet == null || !before.getStatus().equals(pet.getStatus()))) {
+                Set<Long> ids = byStatus.get(before.getStatus());
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+            return pet == null ? null : new Entry(pet, null, now);
+        });
+    }
+
+    // State as of the last write, ignoring the consistency delay
+    private Pet latest(long id) {
+        Entry entry = pets.get(id);
+        return entry == null ? null : entry.current;
+    }
+
+    // State a reader sees right now; settled deletes are dropped from the store
+    private Pet visible(long id) {
+        Entry entry = pets.get(id);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (entry.current == null && entry.isSettled(now)) {
+            pets.remove(id, entry);
+            return null;
+        }
+        return entry.visibleAt(now);
+    }
+
+    // Drops an id from a status set once its settled state no longer has that status
+    private void pruneIndex(long id, String status, Set<Long> ids) {
+        long now = System.nanoTime();
+        pets.compute(id, (key, entry) -> {
+            if (entry == null || (entry.isSettled(now)
+                    && (entry.current == null || !status.equals(entry.current.getStatus())))) {
+                ids.remove(id);
+            }
+            return entry;
+        });
+    }
+
+    private void injectLatency() throws InterruptedException {
+        long delay = latencyMs;
+        if (latencyJitterMs > 0) {
+            delay += ThreadLocalRandom.current().nextLong(latencyJitterMs + 1);
+        }
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    private static Pet readPet(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return JsonUtils.readerFor(Pet.class).readValue(in);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] json = JsonUtils.mapper().writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static ErrorResponse error(int code, String type, String message) {
+        ErrorResponse error = new ErrorResponse();
+        error.setCode(code);
+        error.setType(type);
+        error.setMessage(message);
+        return error;
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> queryValues(String query, String name) {
+        List<String> values = new ArrayList<>();
+        if (query == null) {
+            return values;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                values.addAll(Arrays.asList(pair.substring(eq + 1).split(",")));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * One stored pet: the latest written state and the state readers see until it becomes visible.
+     */
+    private static class Entry {
+        private final Pet current;
+        private final Pet previous;
+        private final long visibleAtNanos;
+
+        Entry(Pet current, Pet previous, long visibleAtNanos) {
+            this.current = current;
+            this.previous = previous;
+            this.visibleAtNanos = visibleAtNanos;
+        }
+
+        boolean isSettled(long nowNanos) {
+            return nowNanos - visibleAtNanos >= 0;
+        }
+
+        Pet visibleAt(long nowNanos) {
+            return isSettled(nowNanos) ? current : previous;
+        }
+    }
+}
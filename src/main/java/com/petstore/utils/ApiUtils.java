@@ -1,11 +1,9 @@
 package com.petstore.utils;
 
-import com.petstore.config.ConfigManager;
-import io.restassured.RestAssured;
+import com.petstore.api.ApiClient;
+import io.restassured.http.Method;
 import io.restassured.response.Response;
 
-import static io.restassured.RestAssured.given;
-
 /**
  * ApiUtils is a utility class that provides reusable methods for performing
  * CRUD operations against the PetStore API using RestAssured.
@@ -13,16 +11,12 @@ import static io.restassured.RestAssured.given;
  * <p>This class centralizes API calls (POST, GET, PUT, DELETE) and
  * provides a method to validate HTTP response status codes.</p>
  *
- * <p>It also sets the base URI for all API calls using RestAssured, so
- * endpoints can be specified relative to the base URL.</p>
+ * <p>All calls go through the shared {@link ApiClient} transport, which holds the
+ * base URI, API key header and a pooled keep-alive HTTP client, so endpoints can be
+ * specified relative to the base URL.</p>
  */
 public class ApiUtils {
 
-    // Static block to initialize RestAssured base URI for all requests
-    static {
-        RestAssured.baseURI = ConfigManager.getBaseUrl();
-    }
-
     /**
      * Sends a POST request to the given endpoint with the specified body.
      * Typically used for creating new resources (e.g., creating a Pet).
@@ -32,11 +26,7 @@ public class ApiUtils {
      * @return Response object containing status code, headers, and body
      */
     public static Response post(String endpoint, Object body) {
-        return given()
-                .header("Content-Type", "application/json") // Set request content type
-                .header("api_key", ConfigManager.getApiKey())
-                .body(body) // Set request body
-                .post(endpoint); // Execute POST request
+        return ApiClient.send(Method.POST, endpoint, body);
     }
 
     /**
@@ -47,10 +37,7 @@ public class ApiUtils {
      * @return Response object containing status code, headers, and body
      */
     public static Response get(String endpoint) {
-        return given()
-                .header("Content-Type", "application/json")
-                .header("api_key", ConfigManager.getApiKey())
-                .get(endpoint); // Execute GET request
+        return ApiClient.send(Method.GET, endpoint, null);
     }
 
     /**
@@ -62,15 +49,9 @@ public class ApiUtils {
      * @return Response object containing status code, headers, and body
      */
     public static Response put(String endpoint, Object body) {
-        return given()
-                .header("Content-Type", "application/json")
-                .header("api_key", ConfigManager.getApiKey()) // ensure API key is sent
-                .body(body)
-                .put(endpoint);
+        return ApiClient.send(Method.PUT, endpoint, body);
     }
 
-
-
     /**
      * Sends a DELETE request to the given endpoint.
      * Typically used to delete resources by ID (e.g., deleting a Pet).
@@ -79,9 +60,7 @@ public class ApiUtils {
      * @return Response object containing status code, headers, and body
      */
     public static Response delete(String endpoint) {
-        return given()
-                .header("api_key", ConfigManager.getApiKey()) // Include API key for authorization
-                .delete(endpoint); // Execute DELETE request
+        return ApiClient.send(Method.DELETE, endpoint, null);
     }
 
     /**
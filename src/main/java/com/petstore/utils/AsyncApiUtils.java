@@ -0,0 +1,108 @@
+package com.petstore.utils;
+
+import com.petstore.api.AsyncApiClient;
+import com.petstore.api.RequestScheduler;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AsyncApiUtils provides non-blocking variants of the {@link ApiUtils} CRUD methods.
+ *
+ * <p>Each method returns a CompletableFuture of the RestAssured Response as soon as the
+ * request has been handed to the shared {@link AsyncApiClient}. That client caps the
+ * number of requests in flight: at the limit, the calling thread blocks until another
+ * request completes, so a method only returns immediately while permits are free. This
+ * lets a single step fan out many requests without a thread per request.</p>
+ */
+public class AsyncApiUtils {
+
+    /**
+     * Sends a POST request asynchronously.
+     *
+     * @param endpoint The API endpoint (e.g., "/pet")
+     * @param body     The object to send as JSON payload
+     * @return Future completed with the Response
+     */
+    public static CompletableFuture<Response> postAsync(String endpoint, Object body) {
+        return AsyncApiClient.send(Method.POST, endpoint, body);
+    }
+
+    /**
+     * Sends a GET request asynchronously.
+     *
+     * @param endpoint The API endpoint (e.g., "/pet/12345")
+     * @return Future completed with the Response
+     */
+    public static CompletableFuture<Response> getAsync(String endpoint) {
+        return AsyncApiClient.send(Method.GET, endpoint, null);
+    }
+
+    /**
+     * Sends a PUT request asynchronously.
+     *
+     * @param endpoint The API endpoint (e.g., "/pet")
+     * @param body     The object to send as JSON payload
+     * @return Future completed with the Response
+     */
+    public static CompletableFuture<Response> putAsync(String endpoint, Object body) {
+        return AsyncApiClient.send(Method.PUT, endpoint, body);
+    }
+
+    /**
+     * Sends a DELETE request asynchronously.
+     *
+     * @param endpoint The API endpoint (e.g., "/pet/12345")
+     * @return Future completed with the Response
+     */
+    public static CompletableFuture<Response> deleteAsync(String endpoint) {
+        return AsyncApiClient.send(Method.DELETE, endpoint, null);
+    }
+
+    /**
+     * Sends a DELETE request asynchronously with the given scheduling priority.
+     * Fixture teardown uses {@link RequestScheduler.Priority#CLEANUP} so it is not starved by new work.
+     *
+     * @param endpoint The API endpoint (e.g., "/pet/12345")
+     * @param priority Priority when a rate limit is configured
+     * @return Future completed with the Response
+     */
+    public static CompletableFuture<Response> deleteAsync(String endpoint, RequestScheduler.Priority priority) {
+        return AsyncApiClient.send(Method.DELETE, endpoint, null, priority);
+    }
+
+    /**
+     * Sends a GET request for every endpoint and completes when all responses arrive.
+     * Responses are returned in the same order as the endpoints.
+     *
+     * @param endpoints API endpoints (e.g., "/pet/1", "/pet/2")
+     * @return Future completed with all Responses, or exceptionally if any request failed
+     */
+    public static CompletableFuture<List<Response>> getAllAsync(List<String> endpoints) {
+        List<CompletableFuture<Response>> futures = new ArrayList<>(endpoints.size());
+        for (String endpoint : endpoints) {
+            futures.add(getAsync(endpoint));
+        }
+        return allOf(futures);
+    }
+
+    /**
+     * Combines futures into one that completes with their results, in order.
+     *
+     * @param futures Futures to wait for
+     * @return Future completed with all Responses, or exceptionally if any request failed
+     */
+    public static CompletableFuture<List<Response>> allOf(List<CompletableFuture<Response>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<Response> responses = new ArrayList<>(futures.size());
+                    for (CompletableFuture<Response> future : futures) {
+                        responses.add(future.join());
+                    }
+                    return responses;
+                });
+    }
+}
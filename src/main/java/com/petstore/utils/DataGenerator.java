@@ -1,25 +1,12 @@
 package com.petstore.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.petstore.models.Pet;
 
-import java.io.File;
-import java.util.List;
-
 public class DataGenerator {
 
-    public static Pet getPetFromFile(int index) throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        List<Pet> pets = mapper.readValue(new File("src/test/resources/testdata/pets.json"),
-                                          mapper.getTypeFactory().constructCollectionType(List.class, Pet.class));
-        Pet petData = pets.get(index);
-
-        Pet p = new Pet();
-        p.setId(System.currentTimeMillis());  // dynamic unique ID
-        p.setName(petData.getName());
-        p.setStatus(petData.getStatus());
-        p.setPhotoUrls(petData.getPhotoUrls());
-
-        return p;
+    public static Pet getPetFromFile(int index) {
+        // Shared immutable template, so the only allocation is the Pet itself;
+        // dynamic unique ID, safe across parallel scenarios
+        return TestDataRepository.getTemplate(index).toPet(IdGenerator.nextId());
     }
 }
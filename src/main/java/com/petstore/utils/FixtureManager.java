@@ -0,0 +1,285 @@
+package com.petstore.utils;
+
+import com.petstore.api.RequestScheduler;
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.TimingProbe;
+import com.petstore.models.Pet;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * FixtureManager creates pets for scenarios and makes sure they are deleted again.
+ *
+ * <p>Every pet id created during the run is kept in a concurrent registry, both
+ * globally and for the scenario running on the current thread. At the end of a
+ * scenario, {@link #teardownScenario()} deletes that scenario's pets even if the
+ * scenario failed half-way. {@link #teardownAll()} deletes whatever is left, and it
+ * also runs from a JVM shutdown hook so an aborted run does not leak pets into
+ * later findByStatus results.</p>
+ *
+ * <p>Provisioning and teardown both go through {@link AsyncApiUtils}. Teardown runs
+ * at most {@code fixtures.teardownConcurrency} deletes at once. A failed delete is
+ * retried only by the client's DELETE {@link com.petstore.api.RetryPolicy}, within the
+ * shared retry budget, and 404 counts as already deleted. Teardown deletes are sent with
+ * {@link RequestScheduler.Priority#CLEANUP}, so under a rate limit they go ahead of new work.</p>
+ *
+ * <p>Created and deleted pets are also recorded in the {@link ShadowStore}.</p>
+ */
+public class FixtureManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixtureManager.class);
+
+    private static final Set<Long> LIVE = ConcurrentHashMap.newKeySet();
+
+    private static final ThreadLocal<Set<Long>> SCENARIO = ThreadLocal.withInitial(ConcurrentHashMap::newKeySet);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(FixtureManager::teardownAll, "petstore-fixture-teardown"));
+    }
+
+    /**
+     * Creates pets in parallel from the test data templates, cycling through the file.
+     * Each pet gets a fresh ID and is tracked for teardown.
+     *
+     * @param count Number of pets to create
+     * @return Created pets, in template order
+     */
+    public static List<Pet> provision(int count) {
+        int templates = TestDataRepository.size(TestDataRepository.PETS);
+        List<Pet> pets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pets.add(DataGenerator.getPetFromFile(i % templates));
+        }
+        return provision(pets);
+    }
+
+    /**
+     * Creates the given pets in parallel and tracks every one the server accepted.
+     * Time blocked at the async client's in-flight limit counts as wait time in the {@link TimingProbe}.
+     * Throws an AssertionError if any creation failed; the others are still tracked.
+     *
+     * @param pets Pets to create, with IDs already assigned
+     * @return The same pets
+     */
+    public static List<Pet> provision(List<Pet> pets) {
+        // Resolve the scenario set here: responses complete on HttpClient threads
+        Set<Long> scenario = SCENARIO.get();
+        List<CompletableFuture<Response>> futures = new ArrayList<>(pets.size());
+        for (Pet pet : pets) {
+            futures.add(post(pet).whenComplete((response, e) -> {
+                if (response != null && response.getStatusCode() == 200) {
+                    track(pet.getId(), scenario);
+                    ShadowStore.recordWrite(pet);
+                }
+            }));
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                Response response = TimingProbe.joinHttp(futures.get(i));
+                if (response.getStatusCode() != 200) {
+                    failures.add(pets.get(i).getId() + " -> HTTP " + response.getStatusCode());
+                }
+            } catch (RuntimeException e) {
+                failures.add(pets.get(i).getId() + " -> " + e.getMessage());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Failed to create " + failures.size() + " of " + pets.size()
+                    + " pet(s): " + failures);
+        }
+        logger.info("Provisioned {} pet(s)", pets.size());
+        return pets;
+    }
+
+    /**
+     * Creates pets from a lazy stream, such as a {@link PetPopulation}, without collecting them.
+     * Each pet is released once its request completes, and the async client's in-flight limit
+     * paces how fast the stream is pulled; the time this thread spends blocked at that limit
+     * is counted as wait time by the {@link TimingProbe}. Every pet the server accepted is tracked.
+     * Throws an AssertionError if any creation failed.
+     *
+     * @param pets      Pets to create, with IDs already assigned
+     * @param onCreated Called with each accepted pet, on an HTTP client thread; must be thread-safe
+     * @return Number of pets created
+     */
+    public static int provision(Stream<Pet> pets, Consumer<Pet> onCreated) {
+        Set<Long> scenario = SCENARIO.get();
+        Phaser pending = new Phaser(1);
+        AtomicInteger created = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        pets.forEach(pet -> {
+            pending.register();
+            post(pet).whenComplete((response, e) -> {
+                try {
+                    if (response != null && response.getStatusCode() == 200) {
+                        track(pet.getId(), scenario);
+                        ShadowStore.recordWrite(pet);
+                        created.incrementAndGet();
+                        onCreated.accept(pet);
+                    } else {
+                        failures.add(pet.getId() + " -> "
+                                + (e != null ? e.getMessage() : "HTTP " + response.getStatusCode()));
+                    }
+                } finally {
+                    pending.arriveAndDeregister();
+                }
+            });
+        });
+        long start = System.nanoTime();
+        pending.arriveAndAwaitAdvance();
+        TimingProbe.addHttp(System.nanoTime() - start);
+
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Failed to create " + failures.size() + " of " + (created.get() + failures.size())
+                    + " pet(s), e.g. " + failures.stream().limit(10).collect(Collectors.toList()));
+        }
+        logger.info("Provisioned {} pet(s) from a stream", created.get());
+        return created.get();
+    }
+
+    /**
+     * Registers a pet created outside this class (e.g. by a step) for teardown.
+     */
+    public static void track(long id) {
+        track(id, SCENARIO.get());
+    }
+
+    /**
+     * Stops tracking a pet that was deleted by the test itself.
+     */
+    public static void untrack(long id) {
+        LIVE.remove(id);
+        ShadowStore.recordDelete(id);
+        SCENARIO.get().remove(id);
+    }
+
+    /**
+     * Deletes every pet tracked by the scenario on the current thread and resets its registry.
+     * Time blocked at the teardown concurrency limit counts as wait time in the {@link TimingProbe}.
+     */
+    public static TeardownResult teardownScenario() {
+        Set<Long> scenario = SCENARIO.get();
+        SCENARIO.remove();
+        return teardown(scenario);
+    }
+
+    /**
+     * Deletes every pet still tracked by any scenario.
+     */
+    public static TeardownResult teardownAll() {
+        return teardown(LIVE);
+    }
+
+    // Blocks while the async client's in-flight limit is reached; the probe counts that as wait time
+    private static CompletableFuture<Response> post(Pet pet) {
+        long start = System.nanoTime();
+        try {
+            return AsyncApiUtils.postAsync("/pet", pet);
+        } finally {
+            TimingProbe.addWait(System.nanoTime() - start);
+        }
+    }
+
+    private static void track(long id, Set<Long> scenario) {
+        LIVE.add(id);
+        scenario.add(id);
+    }
+
+    private static TeardownResult teardown(Collection<Long> tracked) {
+        List<Long> ids = new ArrayList<>(tracked);
+        if (ids.isEmpty()) {
+            return new TeardownResult(Collections.emptyList(), Collections.emptyList());
+        }
+
+        PetStoreConfig config = ConfigManager.get();
+        Semaphore permits = new Semaphore(config.getInt("fixtures.teardownConcurrency"));
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            long start = System.nanoTime();
+            permits.acquireUninterruptibly();
+            TimingProbe.addWait(System.nanoTime() - start);
+            futures.add(delete(id, permits));
+        }
+
+        List<Long> removed = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (TimingProbe.joinHttp(futures.get(i))) {
+                removed.add(id);
+                LIVE.remove(id);
+                ShadowStore.recordDelete(id);
+            } else {
+                failed.add(id);
+            }
+        }
+        if (failed.isEmpty()) {
+            logger.info("Deleted {} fixture pet(s)", removed.size());
+        } else {
+            logger.warn("Deleted {} fixture pet(s), could not delete {}: {}", removed.size(), failed.size(), failed);
+        }
+        return new TeardownResult(removed, failed);
+    }
+
+    // Completes with true once the pet is gone (200 or 404), false once the client has given up;
+    // the teardown permit is released either way, also if the request could not be sent at all
+    private static CompletableFuture<Boolean> delete(long id, Semaphore permits) {
+        CompletableFuture<Response> sent;
+        long start = System.nanoTime();
+        try {
+            sent = AsyncApiUtils.deleteAsync("/pet/" + id, RequestScheduler.Priority.CLEANUP);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        } finally {
+            // Blocking at the async client's in-flight limit is wait time, as in post()
+            TimingProbe.addWait(System.nanoTime() - start);
+        }
+        return sent.whenComplete((response, e) -> permits.release())
+                .handle((response, e) -> {
+                    if (response != null && (response.getStatusCode() == 200 || response.getStatusCode() == 404)) {
+                        return true;
+                    }
+                    logger.debug("Giving up on deleting pet {}: {}", id,
+                            e != null ? e.getMessage() : "HTTP " + response.getStatusCode());
+                    return false;
+                });
+    }
+
+    /**
+     * Outcome of a teardown: which pets were deleted and which could not be.
+     */
+    public static class TeardownResult {
+        private final List<Long> removed;
+        private final List<Long> failed;
+
+        TeardownResult(List<Long> removed, List<Long> failed) {
+            this.removed = removed;
+            this.failed = failed;
+        }
+
+        public List<Long> getRemoved() { return removed; }
+
+        public List<Long> getFailed() { return failed; }
+    }
+}
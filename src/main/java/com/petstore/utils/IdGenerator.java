@@ -0,0 +1,90 @@
+package com.petstore.utils;
+
+import com.petstore.config.ConfigManager;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IdGenerator allocates collision-free Pet IDs for concurrently running scenarios.
+ *
+ * <p>IDs follow a Snowflake-style layout packed into a positive {@code long}:</p>
+ * <pre>
+ *   41 bits  milliseconds since 2024-01-01T00:00:00Z
+ *   10 bits  node id (random per JVM, or the "petstore.nodeId" system property)
+ *   12 bits  sequence within the same millisecond
+ * </pre>
+ *
+ * <p>The last issued timestamp and sequence are kept in a single AtomicLong, so
+ * allocation is lock-free and two threads can never receive the same ID. The node
+ * id keeps IDs apart across JVMs, e.g. when several suites run against the same
+ * server at once.</p>
+ */
+public class IdGenerator {
+
+    private static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final long NODE_ID = resolveNodeId();
+
+    // Timestamp field of the first ID this JVM can issue
+    private static final long START_TIMESTAMP = System.currentTimeMillis() - EPOCH_MS;
+
+    // (timestamp << SEQUENCE_BITS) | sequence of the last issued ID
+    private static final AtomicLong LAST = new AtomicLong();
+
+    /**
+     * Returns the next unique Pet ID.
+     *
+     * @return A positive, strictly increasing (per JVM) ID
+     */
+    public static long nextId() {
+        while (true) {
+            long last = LAST.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MS;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                // Same millisecond (or clock moved back): continue the sequence of the last timestamp
+                next = last + 1;
+            } else {
+                // Sequence exhausted for this millisecond: borrow the next one
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+
+            if (LAST.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & MAX_SEQUENCE;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (NODE_ID << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * Tells whether an ID was issued by this JVM, e.g. to find dynamic IDs in recorded traffic.
+     *
+     * @param id Any long value
+     * @return True if the node bits match this JVM and the timestamp lies within the IDs issued so far
+     */
+    public static boolean isIssued(long id) {
+        if (id <= 0 || ((id >>> SEQUENCE_BITS) & MAX_NODE) != NODE_ID) {
+            return false;
+        }
+        long timestamp = id >>> (NODE_BITS + SEQUENCE_BITS);
+        return timestamp >= START_TIMESTAMP && timestamp <= LAST.get() >>> SEQUENCE_BITS;
+    }
+
+    private static long resolveNodeId() {
+        String configured = ConfigManager.get().getString("petstore.nodeId", null);
+        if (configured != null) {
+            return Long.parseLong(configured) & MAX_NODE;
+        }
+        return new SecureRandom().nextInt((int) MAX_NODE + 1);
+    }
+}
@@ -0,0 +1,133 @@
+package com.petstore.utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.path.json.mapper.factory.Jackson2ObjectMapperFactory;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * JsonUtils holds the single, shared Jackson ObjectMapper used by the framework.
+ *
+ * <p>An ObjectMapper is expensive to create but thread-safe once configured, so it is
+ * built once here. Callers that read the same type repeatedly should use
+ * {@link #readerFor(Class)}: ObjectReader instances are immutable and cache the
+ * deserializer for their type.</p>
+ *
+ * <p>The mapper registers the Blackbird module, which replaces reflective getter,
+ * setter and constructor calls with generated lambdas. It is also RestAssured's object
+ * mapper (see {@link #objectMapperConfig()}), so {@code body(pet)} and
+ * {@code response.as(Pet.class)} share its cached serializers. By default, RestAssured
+ * would build its own reflective mapper instead.</p>
+ */
+public class JsonUtils {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new BlackbirdModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final Jackson2ObjectMapperFactory SHARED_FACTORY = (type, charset) -> MAPPER;
+
+    private static final ObjectMapperConfig OBJECT_MAPPER_CONFIG =
+            ObjectMapperConfig.objectMapperConfig().jackson2ObjectMapperFactory(SHARED_FACTORY);
+
+    /**
+     * Returns the shared, preconfigured ObjectMapper. Do not reconfigure it.
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Returns an immutable, thread-safe reader bound to the given type.
+     *
+     * @param type Target type (e.g., Pet.class)
+     * @return ObjectReader for the type
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return MAPPER.readerFor(type);
+    }
+
+    /**
+     * Returns the RestAssured object mapper configuration that uses the shared mapper.
+     */
+    public static ObjectMapperConfig objectMapperConfig() {
+        return OBJECT_MAPPER_CONFIG;
+    }
+
+    /**
+     * Makes a Response built outside a request (e.g. with ResponseBuilder) map bodies with the
+     * shared mapper. Such responses otherwise use RestAssured's default configuration.
+     * If the installed RestAssured does not offer the needed hook, the response is returned
+     * unchanged and still maps bodies correctly, only with RestAssured's own mapper.
+     *
+     * @param response Response to configure
+     * @return The same response
+     */
+    public static Response withSharedMapper(Response response) {
+        return BuiltResponseConfig.apply(response);
+    }
+
+    /**
+     * The only place that touches RestAssured internals. RestAssured has no public API to set
+     * the configuration of a response built by ResponseBuilder, so the implementation's config
+     * accessors are looked up once. If a RestAssured upgrade renames or removes them, a warning
+     * is logged and responses keep the default configuration.
+     */
+    private static final class BuiltResponseConfig {
+
+        private static final Logger logger = LoggerFactory.getLogger(JsonUtils.class);
+
+        private static final String IMPL = "io.restassured.internal.RestAssuredResponseOptionsImpl";
+
+        private static final Class<?> TYPE;
+        private static final MethodHandle GET_CONFIG;
+        private static final MethodHandle SET_CONFIG;
+
+        static {
+            Class<?> type = null;
+            MethodHandle get = null;
+            MethodHandle set = null;
+            try {
+                type = Class.forName(IMPL, false, Response.class.getClassLoader());
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                get = lookup.findVirtual(type, "getConfig", MethodType.methodType(RestAssuredConfig.class));
+                set = lookup.findVirtual(type, "setConfig",
+                        MethodType.methodType(void.class, RestAssuredConfig.class));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("RestAssured {} has no {}.getConfig/setConfig; built responses use its default mapper",
+                        RestAssured.class.getPackage().getImplementationVersion(), IMPL);
+                type = null;
+            }
+            TYPE = type;
+            GET_CONFIG = get;
+            SET_CONFIG = set;
+        }
+
+        static Response apply(Response response) {
+            if (TYPE == null || !TYPE.isInstance(response)) {
+                return response;
+            }
+            try {
+                RestAssuredConfig config = (RestAssuredConfig) GET_CONFIG.invoke(response);
+                SET_CONFIG.invoke(response, (config != null ? config : RestAssuredConfig.config())
+                        .objectMapperConfig(OBJECT_MAPPER_CONFIG));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Could not configure a built response", e);
+            }
+            return response;
+        }
+    }
+}
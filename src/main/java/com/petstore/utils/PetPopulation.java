@@ -0,0 +1,224 @@
+package com.petstore.utils;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.models.Pet;
+import com.petstore.models.PetTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * PetPopulation generates large, reproducible sets of pets from a seed.
+ *
+ * <p>Each pet is derived only from the seed and its index: index {@code i} seeds its
+ * own {@link SplittableRandom}, so pet 1234 is the same on every run, in any order and
+ * on any thread, without generating pets 0..1233 first. {@link #stream()} is lazy, so a
+ * population of millions costs memory only for the pets the consumer is holding.</p>
+ *
+ * <p>Per pet the generator picks:</p>
+ * <ul>
+ *   <li>a status from a weighted distribution, e.g. {@code available:70,pending:20,sold:10},</li>
+ *   <li>a name from a pattern: {@code {index}} is the pet's index, {@code {seed}} the seed and
+ *   {@code {word}} a word drawn from a small built-in list. The default is {@code {word}-{index}},</li>
+ *   <li>between {@code minPhotos} and {@code maxPhotos} photo URLs.</li>
+ * </ul>
+ *
+ * <p>Names, statuses and photos are reproducible. IDs are not: {@link #pet(long)} assigns a
+ * fresh {@link IdGenerator} ID so generated pets never collide with earlier runs on a
+ * shared server. Defaults come from the {@code population.*} configuration keys
+ * ({@link #fromConfig()}).</p>
+ */
+public final class PetPopulation {
+
+    private static final String[] WORDS = {
+            "Buddy", "Milo", "Luna", "Bella", "Charlie", "Max", "Daisy", "Rocky", "Coco", "Nala",
+            "Oscar", "Ziggy", "Pepper", "Loki", "Maple", "Olive", "Biscuit", "Juniper", "Mochi", "Tofu"
+    };
+
+    // Odd constant from SplittableRandom: spreads consecutive indexes across the seed space
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+    private final long size;
+    private final String[] statuses;
+    private final int[] cumulativeWeights;
+    private final String namePattern;
+    private final int minPhotos;
+    private final int maxPhotos;
+
+    private PetPopulation(Builder builder) {
+        this.seed = builder.seed;
+        this.size = builder.size;
+        this.statuses = builder.weights.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[statuses.length];
+        int total = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            total += builder.weights.get(statuses[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.namePattern = builder.namePattern;
+        this.minPhotos = builder.minPhotos;
+        this.maxPhotos = builder.maxPhotos;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a population configured from the {@code population.*} keys.
+     */
+    public static PetPopulation fromConfig() {
+        PetStoreConfig config = ConfigManager.get();
+        return builder()
+                .seed(config.getLong("population.seed"))
+                .size(config.getLong("population.size"))
+                .statusWeights(config.getString("population.statusWeights"))
+                .namePattern(config.getString("population.namePattern"))
+                .photos(config.getInt("population.minPhotos"), config.getInt("population.maxPhotos"))
+                .build();
+    }
+
+    /**
+     * Streams the whole population lazily, in index order, each pet with a fresh ID.
+     */
+    public Stream<Pet> stream() {
+        return LongStream.range(0, size).mapToObj(this::pet);
+    }
+
+    /**
+     * Returns the pet at an index, with a fresh ID. Any index is valid, including ones past {@link #size()}.
+     */
+    public Pet pet(long index) {
+        return template(index).toPet(IdGenerator.nextId());
+    }
+
+    /**
+     * Returns the reproducible part of the pet at an index (no ID).
+     */
+    public PetTemplate template(long index) {
+        SplittableRandom random = new SplittableRandom(seed + index * GOLDEN_GAMMA);
+        String status = status(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+        String name = namePattern
+                .replace("{index}", Long.toString(index))
+                .replace("{seed}", Long.toString(seed))
+                .replace("{word}", WORDS[random.nextInt(WORDS.length)]);
+        String[] photoUrls = new String[random.nextInt(minPhotos, maxPhotos + 1)];
+        for (int i = 0; i < photoUrls.length; i++) {
+            photoUrls[i] = "https://example.com/pets/" + seed + "/" + index + "/" + i + ".jpg";
+        }
+        return new PetTemplate(null, name, status, photoUrls);
+    }
+
+    /**
+     * Returns the status the pet at an index has, without building the pet.
+     */
+    public String statusOf(long index) {
+        SplittableRandom random = new SplittableRandom(seed + index * GOLDEN_GAMMA);
+        return status(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+    }
+
+    public long size() { return size; }
+
+    public long seed() { return seed; }
+
+    /**
+     * Returns the statuses this population draws from, in declaration order.
+     */
+    public List<String> statuses() {
+        List<String> list = new ArrayList<>(statuses.length);
+        Collections.addAll(list, statuses);
+        return Collections.unmodifiableList(list);
+    }
+
+    private String status(int draw) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return statuses[i];
+            }
+        }
+        return statuses[statuses.length - 1];
+    }
+
+    /**
+     * Builder for {@link PetPopulation}. Defaults: seed 42, 1000 pets, all "available",
+     * names "{word}-{index}", one photo URL each.
+     */
+    public static class Builder {
+        private long seed = 42;
+        private long size = 1000;
+        private final Map<String, Integer> weights = new LinkedHashMap<>();
+        private String namePattern = "{word}-{index}";
+        private int minPhotos = 1;
+        private int maxPhotos = 1;
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder size(long size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Population size must not be negative: " + size);
+            }
+            this.size = size;
+            return this;
+        }
+
+        public Builder status(String status, int weight) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight of status '" + status + "' must be positive: " + weight);
+            }
+            weights.merge(status, weight, Integer::sum);
+            return this;
+        }
+
+        /**
+         * Parses a distribution such as {@code available:70,pending:20,sold:10}. A status
+         * without a weight counts as weight 1.
+         */
+        public Builder statusWeights(String spec) {
+            for (String part : spec.split(",")) {
+                String trimmed = part.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                int colon = trimmed.indexOf(':');
+                if (colon < 0) {
+                    status(trimmed, 1);
+                } else {
+                    status(trimmed.substring(0, colon).trim(), Integer.parseInt(trimmed.substring(colon + 1).trim()));
+                }
+            }
+            return this;
+        }
+
+        public Builder namePattern(String namePattern) {
+            this.namePattern = namePattern;
+            return this;
+        }
+
+        public Builder photos(int min, int max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("Invalid photo URL range: " + min + ".." + max);
+            }
+            this.minPhotos = min;
+            this.maxPhotos = max;
+            return this;
+        }
+
+        public PetPopulation build() {
+            if (weights.isEmpty()) {
+                status("available", 1);
+            }
+            return new PetPopulation(this);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.petstore.utils;
+
+import com.petstore.config.ConfigManager;
+import com.petstore.config.PetStoreConfig;
+import com.petstore.metrics.TimingProbe;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * ResponseWaiter polls an API call until its Response satisfies a condition.
+ *
+ * <p>It replaces fixed {@code Thread.sleep} retry loops for eventually consistent
+ * endpoints. The first attempt is made immediately and the loop exits on the first
+ * match. Between attempts it backs off exponentially with jitter, and it never waits
+ * past the overall deadline.</p>
+ *
+ * <p>Every successful wait records how long the endpoint took to converge. Later waits
+ * on the same key start from the observed median (p50) instead of a hardcoded delay.</p>
+ *
+ * <p>Delays and the default deadline come from the {@code wait.*} configuration keys.</p>
+ */
+public class ResponseWaiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseWaiter.class);
+
+    private static final double BACKOFF_MULTIPLIER = 2.0;
+
+    // Convergence history per endpoint key, e.g. "GET /pet/{id}"
+    private static final Map<String, ConvergenceStats> STATS = new ConcurrentHashMap<>();
+
+    /**
+     * Polls the call until the condition matches or the configured deadline ({@code wait.timeoutMs}) expires.
+     *
+     * @param key       Endpoint key used to track convergence (e.g., "GET /pet/{id}")
+     * @param call      Supplier that performs the API call
+     * @param condition Condition the Response must satisfy
+     * @return WaitResult holding the last Response and whether it matched
+     */
+    public static WaitResult await(String key, Supplier<Response> call, Predicate<Response> condition)
+            throws InterruptedException {
+        return await(key, call, condition, ConfigManager.get().getLong("wait.timeoutMs"));
+    }
+
+    /**
+     * Polls the call until the condition matches or the deadline expires.
+     *
+     * @param key       Endpoint key used to track convergence (e.g., "GET /pet/{id}")
+     * @param call      Supplier that performs the API call
+     * @param condition Condition the Response must satisfy
+     * @param timeoutMs Total time budget in milliseconds, including the calls themselves
+     * @return WaitResult holding the last Response and whether it matched
+     */
+    public static WaitResult await(String key, Supplier<Response> call, Predicate<Response> condition,
+                                   long timeoutMs) throws InterruptedException {
+        PetStoreConfig config = ConfigManager.get();
+        long initialDelayMs = config.getLong("wait.initialDelayMs");
+        long maxDelayMs = config.getLong("wait.maxDelayMs");
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        ConvergenceStats stats = STATS.computeIfAbsent(key, k -> new ConvergenceStats());
+
+        long delayMs = initialDelayMs;
+        int attempts = 0;
+        Response last;
+
+        while (true) {
+            attempts++;
+            last = call.get();
+            if (matches(condition, last)) {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                stats.record(elapsedMs);
+                logger.debug("{} converged after {} attempt(s) in {} ms", key, attempts, elapsedMs);
+                return new WaitResult(last, true, attempts, elapsedMs);
+            }
+
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                break;
+            }
+
+            long sleepMs;
+            if (attempts == 1) {
+                // Start from the observed median so we skip polls that are known to be too early
+                long sinceStartMs = TimeUnit.NANOSECONDS.toMillis(now - start);
+                sleepMs = Math.max(initialDelayMs, stats.p50() - sinceStartMs);
+            } else {
+                sleepMs = withJitter(delayMs);
+                delayMs = Math.min(maxDelayMs, (long) (delayMs * BACKOFF_MULTIPLIER));
+            }
+            sleepMs = Math.min(sleepMs, TimeUnit.NANOSECONDS.toMillis(deadline - now));
+            if (sleepMs > 0) {
+                TimingProbe.sleep(sleepMs); // reported as wait time by the step profiler
+            }
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.debug("{} did not converge after {} attempt(s) in {} ms", key, attempts, elapsedMs);
+        return new WaitResult(last, false, attempts, elapsedMs);
+    }
+
+    private static boolean matches(Predicate<Response> condition, Response response) {
+        try {
+            return condition.test(response);
+        } catch (RuntimeException e) {
+            // A body that cannot be mapped yet simply counts as "not converged"
+            logger.debug("Condition threw {}: {}", e.getClass().getSimpleName(), e.getMessage());
+            return false;
+        }
+    }
+
+    // "Equal jitter": half the delay is fixed, half is random, so polls from parallel scenarios spread out
+    private static long withJitter(long delayMs) {
+        long half = delayMs / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * Outcome of a wait: the last Response seen and whether it satisfied the condition.
+     */
+    public static class WaitResult {
+        private final Response response;
+        private final boolean matched;
+        private final int attempts;
+        private final long elapsedMs;
+
+        WaitResult(Response response, boolean matched, int attempts, long elapsedMs) {
+            this.response = response;
+            this.matched = matched;
+            this.attempts = attempts;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public Response getResponse() { return response; }
+
+        public boolean isMatched() { return matched; }
+
+        public int getAttempts() { return attempts; }
+
+        public long getElapsedMs() { return elapsedMs; }
+    }
+
+    /**
+     * Fixed-size ring of recent convergence times for one endpoint key.
+     */
+    private static class ConvergenceStats {
+        private static final int WINDOW = 64;
+
+        private final long[] samples = new long[WINDOW];
+        private int count;
+        private int next;
+
+        synchronized void record(long elapsedMs) {
+            samples[next] = elapsedMs;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) {
+                count++;
+            }
+        }
+
+        synchronized long p50() {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[(count - 1) / 2];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.petstore.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchemaRegistry loads and compiles each JSON schema once and validates against it.
+ *
+ * <p>{@code matchesJsonSchemaInClasspath} reads and compiles the schema file on every
+ * assertion. Here a schema is compiled the first time it is used and kept for the
+ * rest of the run. Compiled schemas are immutable and safe to share between threads.</p>
+ *
+ * <p>Instances are validated as Jackson trees. They are parsed from the response bytes
+ * RestAssured already buffered, or passed in by callers that already parsed the body,
+ * so the body is never converted to a String. Arrays, such as a findByStatus response,
+ * can be checked element by element with {@link #assertEachValid(String, JsonNode)}.</p>
+ *
+ * <p>The json-schema-validator factory is created on first compile, so runs that
+ * never validate a schema never load it. {@link Warmup} compiles both schemas in the
+ * background at startup.</p>
+ */
+public class SchemaRegistry {
+
+    /** Schema for a single Pet, relative to the classpath root. */
+    public static final String PET = "schema/pet-schema.json";
+
+    /** Schema for the PetStore error body, relative to the classpath root. */
+    public static final String ERROR = "schema/error-schema.json";
+
+    private static final Map<String, JsonSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the compiled schema for a classpath resource, compiling it on first use.
+     *
+     * @param resource Classpath resource (e.g., "schema/pet-schema.json")
+     * @return Compiled, thread-safe schema
+     */
+    public static JsonSchema get(String resource) {
+        return SCHEMAS.computeIfAbsent(resource, SchemaRegistry::compile);
+    }
+
+    /**
+     * Validates a parsed JSON instance.
+     *
+     * @param resource Schema classpath resource
+     * @param instance Parsed JSON value
+     * @return Validation report; {@code isSuccess()} tells whether the instance is valid
+     */
+    public static ProcessingReport validate(String resource, JsonNode instance) {
+        try {
+            return get(resource).validate(instance);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Schema " + resource + " could not be applied: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validates raw JSON bytes.
+     *
+     * @param resource Schema classpath resource
+     * @param json     UTF-8 JSON document
+     * @return Validation report
+     */
+    public static ProcessingReport validate(String resource, byte[] json) {
+        return validate(resource, parse(json));
+    }
+
+    /**
+     * Asserts that a response body is valid against the schema.
+     * Throws an AssertionError listing the violations if it is not.
+     *
+     * @param resource Schema classpath resource
+     * @param response The RestAssured Response object
+     */
+    public static void assertValid(String resource, Response response) {
+        assertValid(resource, parse(response.asByteArray()));
+    }
+
+    /**
+     * Asserts that a parsed JSON instance is valid against the schema.
+     *
+     * @param resource Schema classpath resource
+     * @param instance Parsed JSON value
+     */
+    public static void assertValid(String resource, JsonNode instance) {
+        ProcessingReport report = validate(resource, instance);
+        if (!report.isSuccess()) {
+            throw new AssertionError("Body does not match " + resource + ": " + describe(report));
+        }
+    }
+
+    /**
+     * Asserts that every element of a JSON array is valid against the schema.
+     * Stops at the first invalid element and reports its index.
+     *
+     * @param resource Schema classpath resource for a single element
+     * @param array    Parsed JSON array
+     * @return Number of elements validated
+     */
+    public static int assertEachValid(String resource, JsonNode array) {
+        if (!array.isArray()) {
+            throw new AssertionError("Expected a JSON array to validate against " + resource
+                    + " but got " + array.getNodeType());
+        }
+        JsonSchema schema = get(resource);
+        for (int i = 0; i < array.size(); i++) {
+            ProcessingReport report;
+            try {
+                report = schema.validate(array.get(i));
+            } catch (ProcessingException e) {
+                throw new IllegalStateException("Schema " + resource + " could not be applied: " + e.getMessage(), e);
+            }
+            if (!report.isSuccess()) {
+                throw new AssertionError("Element " + i + " does not match " + resource + ": " + describe(report));
+            }
+        }
+        return array.size();
+    }
+
+    /**
+     * Formats the violations in a report as "pointer: message" pairs.
+     */
+    public static String describe(ProcessingReport report) {
+        StringBuilder sb = new StringBuilder();
+        for (ProcessingMessage message : report) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            String pointer = message.asJson().path("instance").path("pointer").asText();
+            sb.append(pointer.isEmpty() ? "/" : pointer).append(": ").append(message.getMessage());
+        }
+        return sb.toString();
+    }
+
+    private static JsonSchema compile(String resource) {
+        try (InputStream in = SchemaRegistry.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Schema not found on classpath: " + resource);
+            }
+            return FactoryHolder.FACTORY.getJsonSchema(JsonUtils.mapper().readTree(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read schema " + resource, e);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Invalid schema " + resource + ": " + e.getMessage(), e);
+        }
+    }
+
+    // The validator stack is only bootstrapped when the first schema is compiled, not when this class loads
+    private static class FactoryHolder {
+        private static final JsonSchemaFactory FACTORY = JsonSchemaFactory.byDefault();
+    }
+
+    private static JsonNode parse(byte[] json) {
+        try {
+            return JsonUtils.mapper().readTree(json);
+        } catch (IOException e) {
+            throw new AssertionError("Body is not valid JSON: " + e.getMessage(), e);
+        }
+    }
+}
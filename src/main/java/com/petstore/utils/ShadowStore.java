@@ -0,0 +1,287 @@
+package com.petstore.utils;
+
+import com.petstore.models.Pet;
+import com.petstore.models.PetTemplate;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ShadowStore is the suite's own record of what the server should contain.
+ *
+ * <p>Every pet the suite creates or updates is written here once the server has
+ * acknowledged the write. The store is indexed by id and by status, and each write
+ * gets a run-wide version number. Assertions compare what the server returns against
+ * the expected state held here, instead of re-fetching or falling back to a single
+ * mutable {@code Pet} kept by the step class. It is safe to use from parallel
+ * scenarios.</p>
+ *
+ * <p>{@link #observe(Pet)} diffs a server response against the expected state. Polls that
+ * start right after a write use {@link #observeAfterWrite(Pet)} instead: the first time
+ * the server matches the write, the time since that write is recorded as the pet's
+ * convergence lag. A pet first seen later, e.g. in a listing after bulk provisioning,
+ * records nothing; that time would measure the suite, not the server.
+ * {@link #export(File)} writes the lags per pet with a summary, so eventual consistency
+ * on the target is visible in the run output.</p>
+ */
+public class ShadowStore {
+
+    private static final long MAX_TRACKABLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final Map<Long, Entry> BY_ID = new ConcurrentHashMap<>();
+    private static final Map<String, Set<Long>> BY_STATUS = new ConcurrentHashMap<>();
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    // Latest observed convergence per pet; kept after the pet is deleted
+    private static final Map<Long, Lag> LAGS = new ConcurrentHashMap<>();
+    private static final ConcurrentHistogram LAG_HISTOGRAM = new ConcurrentHistogram(MAX_TRACKABLE_MILLIS, 3);
+
+    /**
+     * Records a write the server acknowledged (POST or PUT) as the expected state of the pet.
+     *
+     * @param pet Pet as sent to the server; an immutable snapshot is stored
+     * @return Version assigned to this write
+     */
+    public static long recordWrite(Pet pet) {
+        if (pet == null || pet.getId() == null) {
+            throw new IllegalArgumentException("Only pets with an ID can be recorded");
+        }
+        PetTemplate snapshot = PetTemplate.of(pet);
+        long[] version = new long[1];
+        // compute() serializes writes per id, so the status index always follows the latest write
+        BY_ID.compute(snapshot.getId(), (id, previous) -> {
+            if (previous != null) {
+                unindex(id, previous.pet.getStatus());
+            }
+            index(id, snapshot.getStatus());
+            version[0] = VERSION.incrementAndGet();
+            return new Entry(snapshot, version[0], System.nanoTime());
+        });
+        return version[0];
+    }
+
+    /**
+     * Forgets a pet that was deleted. Its convergence lag stays in the report.
+     */
+    public static void recordDelete(long id) {
+        BY_ID.computeIfPresent(id, (key, previous) -> {
+            unindex(key, previous.pet.getStatus());
+            return null;
+        });
+    }
+
+    /**
+     * Returns true if the suite has written this pet and not deleted it since.
+     */
+    public static boolean contains(long id) {
+        return BY_ID.containsKey(id);
+    }
+
+    /**
+     * Returns the ids of the pets expected to have the given status.
+     */
+    public static Set<Long> idsWithStatus(String status) {
+        Set<Long> ids = BY_STATUS.get(status);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Returns the version of the most recent write.
+     */
+    public static long version() {
+        return VERSION.get();
+    }
+
+    /**
+     * Returns the pets expected with this status, written no later than {@code asOfVersion},
+     * that are missing from a listing. A non-empty result means the listing is stale or lost writes.
+     *
+     * @param status      Status the listing was filtered by
+     * @param listedIds   IDs present in the listing
+     * @param asOfVersion {@link #version()} taken before the listing was requested
+     * @return Missing pet ids
+     */
+    public static List<Long> missingFrom(String status, Set<Long> listedIds, long asOfVersion) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : idsWithStatus(status)) {
+            Entry entry = BY_ID.get(id);
+            if (entry != null && entry.version <= asOfVersion && !listedIds.contains(id)) {
+                missing.add(id);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Compares a pet returned by the server with its expected state.
+     *
+     * @param actual Pet as returned by the server
+     * @return Differences such as "status: expected 'sold' but was 'available'"; empty if they match
+     *         or the suite never wrote this pet
+     */
+    public static List<String> observe(Pet actual) {
+        return observe(actual, false);
+    }
+
+    /**
+     * Like {@link #observe(Pet)}, for a poll that started right after the write.
+     * The first match records the convergence lag of that write, accurate to one poll interval.
+     */
+    public static List<String> observeAfterWrite(Pet actual) {
+        return observe(actual, true);
+    }
+
+    /**
+     * Asserts that a pet returned by the server matches its expected state.
+     * Throws AssertionError listing every differing field.
+     */
+    public static void assertMatches(Pet actual) {
+        if (actual != null && actual.getId() != null && !contains(actual.getId())) {
+            throw new AssertionError("Pet " + actual.getId() + " was not written by this suite");
+        }
+        List<String> differences = observe(actual);
+        if (!differences.isEmpty()) {
+            throw new AssertionError("Pet " + (actual == null ? null : actual.getId())
+                    + " does not match its expected state: " + String.join("; ", differences));
+        }
+    }
+
+    /**
+     * Lists the fields in which two pets differ.
+     */
+    public static List<String> diff(PetTemplate expected, Pet actual) {
+        List<String> differences = new ArrayList<>();
+        compare(differences, "id", expected.getId(), actual.getId());
+        compare(differences, "name", expected.getName(), actual.getName());
+        compare(differences, "status", expected.getStatus(), actual.getStatus());
+        if (!expected.hasPhotoUrls(actual.getPhotoUrls())) {
+            differences.add("photoUrls: expected " + expected.getPhotoUrls()
+                    + " but was " + Arrays.toString(actual.getPhotoUrls()));
+        }
+        return differences;
+    }
+
+    /**
+     * Returns a summary of convergence lags across all pets: count, p50Ms, p90Ms, p99Ms and maxMs.
+     */
+    public static Map<String, Object> lagSummary() {
+        Histogram h = LAG_HISTOGRAM.copy();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", h.getTotalCount());
+        summary.put("p50Ms", h.getValueAtPercentile(50));
+        summary.put("p90Ms", h.getValueAtPercentile(90));
+        summary.put("p99Ms", h.getValueAtPercentile(99));
+        summary.put("maxMs", h.getMaxValue());
+        return summary;
+    }
+
+    /**
+     * Writes the convergence lag of every observed pet to {@code convergence-lag.csv} in the given directory.
+     *
+     * @param dir Output directory, created if missing
+     * @return The lag summary, as a single line
+     */
+    public static String export(File dir) throws IOException {
+        dir.mkdirs();
+        try (PrintWriter csv = new PrintWriter(new File(dir, "convergence-lag.csv"), StandardCharsets.UTF_8)) {
+            csv.println("petId,status,version,lagMs");
+            LAGS.forEach((id, lag) -> csv.println(id + ",\"" + lag.status + "\"," + lag.version + "," + lag.lagMs));
+        }
+        return "convergence lag " + lagSummary();
+    }
+
+    /**
+     * Clears all expected state and lags.
+     */
+    public static void reset() {
+        BY_ID.clear();
+        BY_STATUS.clear();
+        LAGS.clear();
+        LAG_HISTOGRAM.reset();
+    }
+
+    private static List<String> observe(Pet actual, boolean recordLag) {
+        if (actual == null || actual.getId() == null) {
+            return Collections.singletonList("id: expected a pet but was " + (actual == null ? "nothing" : "null"));
+        }
+        Entry entry = BY_ID.get(actual.getId());
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        List<String> differences = diff(entry.pet, actual);
+        if (recordLag && differences.isEmpty() && entry.converged.compareAndSet(false, true)) {
+            long lagMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.writtenAt);
+            LAGS.put(actual.getId(), new Lag(entry.pet.getStatus(), entry.version, lagMs));
+            LAG_HISTOGRAM.recordValue(Math.min(lagMs, MAX_TRACKABLE_MILLIS));
+        }
+        return differences;
+    }
+
+    private static void index(long id, String status) {
+        if (status != null) {
+            BY_STATUS.computeIfAbsent(status, s -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static void unindex(long id, String status) {
+        if (status != null) {
+            Set<Long> ids = BY_STATUS.get(status);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    private static void compare(List<String> differences, String field, Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            differences.add(field + ": expected '" + expected + "' but was '" + actual + "'");
+        }
+    }
+
+    /**
+     * Expected state of one pet as of one write.
+     */
+    private static class Entry {
+        private final PetTemplate pet;
+        private final long version;
+        private final long writtenAt;
+        private final AtomicBoolean converged = new AtomicBoolean();
+
+        Entry(PetTemplate pet, long version, long writtenAt) {
+            this.pet = pet;
+            this.version = version;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * Convergence of one write: the time until the server first returned it.
+     */
+    private static class Lag {
+        private final String status;
+        private final long version;
+        private final long lagMs;
+
+        Lag(String status, long version, long lagMs) {
+            this.status = status;
+            this.version = version;
+            this.lagMs = lagMs;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.petstore.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * StreamingAssertions checks the elements of a JSON array response one at a time.
+ *
+ * <p>The body is walked with Jackson's streaming JsonParser. Only the current element
+ * is turned into a tree, so memory stays flat however long the list is, and the
+ * whole array is never turned into a {@code Pet[]}. The walk stops at the first
+ * element that fails, and the AssertionError names that element's index. The cost
+ * therefore grows with the position of the first failure, not with the response size.</p>
+ */
+public class StreamingAssertions {
+
+    /**
+     * Applies an assertion to every element of a JSON array body, in order.
+     *
+     * @param response  The RestAssured Response whose body is a JSON array
+     * @param assertion Check for one element; signals a violation by throwing AssertionError
+     * @return Number of elements checked
+     */
+    public static int assertEach(Response response, Consumer<JsonNode> assertion) {
+        try (InputStream in = response.asInputStream()) {
+            return assertEach(in, assertion);
+        } catch (IOException e) {
+            throw new AssertionError("Could not read response body: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies an assertion to every element of a JSON array read from a stream, in order.
+     *
+     * @param in        JSON array document
+     * @param assertion Check for one element; signals a violation by throwing AssertionError
+     * @return Number of elements checked
+     */
+    public static int assertEach(InputStream in, Consumer<JsonNode> assertion) throws IOException {
+        try (JsonParser parser = JsonUtils.mapper().createParser(in)) {
+            JsonToken first = parser.nextToken();
+            if (first != JsonToken.START_ARRAY) {
+                throw new AssertionError("Expected a JSON array but got " + first);
+            }
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode element = parser.readValueAsTree();
+                try {
+                    assertion.accept(element);
+                } catch (AssertionError e) {
+                    throw new AssertionError("Element " + index + ": " + e.getMessage(), e);
+                }
+                index++;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Asserts that every pet in a list response is valid against the Pet schema and has the expected status.
+     *
+     * @param response       Response of e.g. /pet/findByStatus
+     * @param expectedStatus Status every pet must have (e.g., "available")
+     * @return Number of pets checked
+     */
+    public static int assertEachPet(Response response, String expectedStatus) {
+        return assertEach(response, pet -> assertPet(pet, expectedStatus));
+    }
+
+    /**
+     * Asserts that one list element is valid against the Pet schema and has the expected status.
+     *
+     * @param pet            One element of a pet list
+     * @param expectedStatus Status the pet must have
+     */
+    public static void assertPet(JsonNode pet, String expectedStatus) {
+        SchemaRegistry.assertValid(SchemaRegistry.PET, pet);
+        String status = pet.path("status").asText();
+        if (!expectedStatus.equals(status)) {
+            throw new AssertionError("Pet " + pet.path("id").asText() + " has status '" + status
+                    + "', expected '" + expectedStatus + "'");
+        }
+    }
+}
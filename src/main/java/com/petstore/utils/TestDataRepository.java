@@ -0,0 +1,148 @@
+package com.petstore.utils;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.petstore.models.Pet;
+import com.petstore.models.PetTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * TestDataRepository loads pet fixture files from the classpath and caches them.
+ *
+ * <p>Each data file is read and parsed exactly once per JVM, with a shared
+ * ObjectReader, into immutable {@link PetTemplate} records. Templates are shared as-is;
+ * a lookup that returns a {@link Pet} builds one new instance from the template, with
+ * no intermediate copy.</p>
+ *
+ * <p>Very large fixture files should be read with {@link #streamPets(String)}, which
+ * walks the JSON array with Jackson's streaming parser one element at a time instead
+ * of materializing the whole list.</p>
+ */
+public class TestDataRepository {
+
+    /** Default pet fixture file, relative to the classpath root. */
+    public static final String PETS = "testdata/pets.json";
+
+    private static final ObjectReader PET_READER = JsonUtils.readerFor(Pet.class);
+    private static final ObjectReader TEMPLATE_READER = JsonUtils.readerFor(PetTemplate.class);
+
+    private static final Map<String, List<PetTemplate>> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a new Pet built from the template at the given index in the default fixture file.
+     *
+     * @param index Zero-based index in testdata/pets.json
+     * @return A new Pet instance the caller may modify
+     */
+    public static Pet getPet(int index) {
+        return getTemplate(PETS, index).toPet();
+    }
+
+    /**
+     * Returns a new Pet built from the template at the given index in a fixture file.
+     *
+     * @param resource Classpath resource (e.g., "testdata/pets.json")
+     * @param index    Zero-based index in the file
+     * @return A new Pet instance the caller may modify
+     */
+    public static Pet getPet(String resource, int index) {
+        return getTemplate(resource, index).toPet();
+    }
+
+    /**
+     * Returns the shared, immutable template at the given index in the default fixture file.
+     *
+     * @param index Zero-based index in testdata/pets.json
+     * @return Cached template; no copy is made
+     */
+    public static PetTemplate getTemplate(int index) {
+        return getTemplate(PETS, index);
+    }
+
+    /**
+     * Returns the shared, immutable template at the given index in a fixture file.
+     *
+     * @param resource Classpath resource (e.g., "testdata/pets.json")
+     * @param index    Zero-based index in the file
+     * @return Cached template; no copy is made
+     */
+    public static PetTemplate getTemplate(String resource, int index) {
+        List<PetTemplate> pets = templates(resource);
+        if (index < 0 || index >= pets.size()) {
+            throw new IndexOutOfBoundsException(
+                    "No pet at index " + index + " in " + resource + " (size " + pets.size() + ")");
+        }
+        return pets.get(index);
+    }
+
+    /**
+     * Returns the number of pets in a fixture file.
+     */
+    public static int size(String resource) {
+        return templates(resource).size();
+    }
+
+    /**
+     * Streams pets from a fixture file without loading the whole array into memory.
+     * The file is not cached. Close the stream (try-with-resources) to release the file.
+     *
+     * @param resource Classpath resource containing a JSON array of pets
+     * @return Lazily parsed stream of pets
+     */
+    public static Stream<Pet> streamPets(String resource) {
+        InputStream in = open(resource);
+        try {
+            MappingIterator<Pet> iterator = PET_READER.readValues(in);
+            return StreamSupport.stream(
+                            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                            false)
+                    .onClose(() -> closeQuietly(iterator));
+        } catch (IOException e) {
+            closeQuietly(in);
+            throw new UncheckedIOException("Failed to read " + resource, e);
+        }
+    }
+
+    private static List<PetTemplate> templates(String resource) {
+        return CACHE.computeIfAbsent(resource, TestDataRepository::load);
+    }
+
+    private static List<PetTemplate> load(String resource) {
+        List<PetTemplate> pets = new ArrayList<>();
+        try (InputStream in = open(resource);
+             MappingIterator<PetTemplate> iterator = TEMPLATE_READER.readValues(in)) {
+            iterator.forEachRemaining(pets::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + resource, e);
+        }
+        return Collections.unmodifiableList(pets);
+    }
+
+    private static InputStream open(String resource) {
+        InputStream in = TestDataRepository.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("Test data not found on classpath: " + resource);
+        }
+        return in;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // nothing useful to do if closing a read-only stream fails
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.petstore.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.petstore.api.ApiClient;
+import com.petstore.config.ConfigManager;
+import com.petstore.models.Pet;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Warmup loads and initializes the HTTP, JSON and schema machinery in the background
+ * while the suite is still starting up.
+ *
+ * <p>The first scenario otherwise pays for loading RestAssured and Groovy, building
+ * the {@link ApiClient} specification, generating Jackson's Blackbird accessors for
+ * {@link Pet} and bootstrapping the json-schema-validator stack. {@link #start()} runs
+ * those three paths concurrently on pool threads, without sending a request, and
+ * returns immediately. Class initialization is thread-safe, so a scenario that gets
+ * there first simply waits for the part it needs instead of doing it twice.</p>
+ *
+ * <p>Nothing here touches metrics, the rate limiter or the shadow store. A failed warm-up
+ * step is logged and ignored; the real call will report the problem. Disable with
+ * {@code startup.warmup=false}.</p>
+ */
+public class Warmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(Warmup.class);
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    private static final byte[] SAMPLE_PET =
+            "{\"id\":1,\"name\":\"warmup\",\"status\":\"available\",\"photoUrls\":[\"\"]}".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] SAMPLE_ERROR =
+            "{\"code\":1,\"type\":\"error\",\"message\":\"Pet not found\"}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Starts the warm-up once per JVM. Later calls return the already completed or running future.
+     *
+     * @return Future completed when every warm-up step has finished, successfully or not
+     */
+    public static CompletableFuture<Void> start() {
+        if (!ConfigManager.get().getBoolean("startup.warmup") || !STARTED.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return CompletableFuture.allOf(
+                        CompletableFuture.runAsync(() -> run("http", Warmup::http)),
+                        CompletableFuture.runAsync(() -> run("json", Warmup::json)),
+                        CompletableFuture.runAsync(() -> run("schema", Warmup::schema)))
+                .whenComplete((ignored, e) -> logger.debug("Warm-up finished in {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    // RestAssured and the shared spec, plus the response-mapping path every step uses
+    private static void http() {
+        ApiClient.given();
+        Response response = JsonUtils.withSharedMapper(new ResponseBuilder()
+                .setStatusCode(200)
+                .setStatusLine("HTTP/1.1 200")
+                .setContentType("application/json")
+                .setBody(SAMPLE_PET)
+                .build());
+        response.as(Pet.class);
+        response.jsonPath().getString("name");
+    }
+
+    private static void json() throws IOException {
+        Pet pet = JsonUtils.readerFor(Pet.class).readValue(SAMPLE_PET);
+        byte[] array = JsonUtils.mapper().writeValueAsBytes(new Pet[] {pet});
+        JsonUtils.readerFor(Pet[].class).readValue(array);
+    }
+
+    private static void schema() throws IOException {
+        JsonNode pet = JsonUtils.mapper().readTree(SAMPLE_PET);
+        SchemaRegistry.validate(SchemaRegistry.PET, pet);
+        SchemaRegistry.validate(SchemaRegistry.ERROR, SAMPLE_ERROR);
+    }
+
+    private static void run(String name, Step step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+            logger.debug("Warmed up {} in {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception | LinkageError e) {
+            logger.debug("Warm-up of {} failed, continuing without it: {}", name, e.toString());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+}
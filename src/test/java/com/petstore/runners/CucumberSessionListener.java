@@ -0,0 +1,82 @@
+package com.petstore.runners;
+
+import com.petstore.sharding.Shard;
+import com.petstore.sharding.ShardPlanner;
+import com.petstore.utils.Warmup;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CucumberSessionListener adds report plugins and optional sharding before the Cucumber
+ * engine discovers the {@link TestRunner} suite.
+ *
+ * <p>It is registered through {@code META-INF/services}, so the JUnit Platform launcher
+ * calls it whether the suite runs under surefire or the console launcher. It adds console
+ * output, the file-writing report plugins (HTML, JSON and
+ * {@link com.petstore.metrics.StepTimingPlugin}) under {@link Shard#outputDir()}, and
+ * {@link com.petstore.history.RunHistoryPlugin}, which appends the run to the shared run
+ * history. When the run is sharded ({@code -Dshard.total=N -Dshard.index=i}), it also
+ * restricts {@code cucumber.features} to this shard's part of the {@link ShardPlanner}
+ * plan. The Cucumber engine reads these as system properties because the suite does not
+ * set them, and a {@code cucumber.features} property replaces the suite's selectors.</p>
+ *
+ * <p>It also starts the background {@link Warmup} first thing, so the HTTP, JSON and
+ * schema paths are ready by the time the first scenario runs. The launcher may open a
+ * session for discovery and another for execution; the setup runs once per JVM.</p>
+ */
+public class CucumberSessionListener implements LauncherSessionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CucumberSessionListener.class);
+
+    private static final AtomicBoolean PREPARED = new AtomicBoolean();
+
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        if (!PREPARED.compareAndSet(false, true)) {
+            return;
+        }
+        // Overlaps client warm-up with Cucumber parsing features and scanning glue
+        Warmup.start();
+        prepare();
+    }
+
+    private static void prepare() {
+        File dir = Shard.outputDir();
+        String plugins = "pretty"
+                + ", html:" + new File(dir, "cucumber-report.html")
+                + ", json:" + new File(dir, "cucumber-report.json")
+                + ", com.petstore.metrics.StepTimingPlugin:" + new File(dir, "profile")
+                + ", com.petstore.history.RunHistoryPlugin";
+        String userPlugins = System.getProperty("cucumber.plugin");
+        System.setProperty("cucumber.plugin", userPlugins == null ? plugins : userPlugins + ", " + plugins);
+
+        if (!Shard.isSharded()) {
+            return;
+        }
+        int index = Shard.index();
+        int total = Shard.total();
+        if (index < 0 || index >= total) {
+            throw new IllegalArgumentException("shard.index must be in 0.." + (total - 1) + " but was " + index);
+        }
+
+        List<String> scenarios = ShardPlanner.discover(Collections.singletonList(TestRunner.FEATURES));
+        List<String> mine = ShardPlanner.plan(scenarios, total, Shard.strategy(),
+                ShardPlanner.readHistory(Shard.historyFile())).get(index);
+
+        if (mine.isEmpty()) {
+            // More shards than scenarios: a tag nothing carries selects nothing
+            System.setProperty("cucumber.filter.tags", "@shard-" + index + "-has-no-scenarios");
+        } else {
+            System.setProperty("cucumber.features", String.join(",", mine));
+        }
+        logger.info("Shard {} of {} ({} strategy): {} of {} scenario(s), reports in {}",
+                index, total, Shard.strategy(), mine.size(), scenarios.size(), dir);
+    }
+}
@@ -1,19 +1,24 @@
 package com.petstore.runners;
 
-import io.cucumber.junit.Cucumber;
-import io.cucumber.junit.CucumberOptions;
-import org.junit.runner.RunWith;
+import org.junit.platform.suite.api.ConfigurationParameter;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectDirectories;
+import org.junit.platform.suite.api.Suite;
 
-@RunWith(Cucumber.class)
-@CucumberOptions(
-        features = "src/test/resources/features",  // Path to feature files
-        glue = {"com.petstore.stepdefinitions"},  // Step definitions package
-        plugin = {
-                "pretty",                             // Console output
-                "html:target/cucumber-report.html",   // HTML report
-                "json:target/cucumber-report.json"    // Optional JSON report
-        },
-        monochrome = true
-)
+import static io.cucumber.junit.platform.engine.Constants.ANSI_COLORS_DISABLED_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+
+// CucumberSessionListener adds the console, HTML, JSON and step timing reports under Shard.outputDir() (target/ unless sharded)
+// The embedded stub is started and stopped by com.petstore.stepdefinitions.SuiteHooks
+@Suite
+@IncludeEngines("cucumber")
+@SelectDirectories(TestRunner.FEATURES)  // Path to feature files
+@ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "com.petstore.stepdefinitions")  // Step definitions package
+@ConfigurationParameter(key = ANSI_COLORS_DISABLED_PROPERTY_NAME, value = "true")
 public class TestRunner {
+
+    /**
+     * Root of the feature files, also used to plan shards.
+     */
+    public static final String FEATURES = "src/test/resources/features";
 }
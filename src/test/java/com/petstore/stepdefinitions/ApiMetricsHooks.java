@@ -0,0 +1,34 @@
+package com.petstore.stepdefinitions;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.petstore.metrics.ApiMetrics;
+import com.petstore.utils.JsonUtils;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+
+/**
+ * Collects the API requests made by each scenario and attaches them to the Cucumber report.
+ *
+ * <p>The capture is thread-local, so scenarios running in parallel do not see each
+ * other's requests. The attachment is a JSON map of endpoint key to count, errors,
+ * total and max latency.</p>
+ */
+public class ApiMetricsHooks {
+
+    @Before(order = 0)
+    public void startCapture() {
+        ApiMetrics.startCapture();
+    }
+
+    // Lowest order runs last among @After hooks, so cleanup requests are included
+    @After(order = 0)
+    public void attachMetrics(Scenario scenario) throws JsonProcessingException {
+        ApiMetrics.Capture capture = ApiMetrics.stopCapture();
+        if (capture == null) {
+            return;
+        }
+        byte[] json = JsonUtils.mapper().writerWithDefaultPrettyPrinter().writeValueAsBytes(capture.summary());
+        scenario.attach(json, "application/json", "api-metrics");
+    }
+}
@@ -1,25 +1,53 @@
 package com.petstore.stepdefinitions;
 
+import com.petstore.metrics.TimingProbe;
 import com.petstore.models.Pet;
 import com.petstore.utils.ApiUtils;
+import com.petstore.utils.AsyncApiUtils;
 import com.petstore.utils.DataGenerator;
+import com.petstore.utils.FixtureManager;
+import com.petstore.utils.JsonUtils;
+import com.petstore.utils.PetPopulation;
+import com.petstore.utils.ResponseWaiter;
+import com.petstore.utils.SchemaRegistry;
+import com.petstore.utils.ShadowStore;
+import com.petstore.utils.StreamingAssertions;
 import io.cucumber.java.After;
 import io.cucumber.java.en.*;
 import io.restassured.response.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static io.restassured.RestAssured.given;
-import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
 import static org.junit.Assert.*;
 
+/**
+ * Step definitions for the Pet endpoints.
+ *
+ * <p>Cucumber creates a new instance of this class for every scenario, so the fields
+ * below are scenario-scoped and confined to the thread running that scenario. Keep any
+ * shared state out of static fields to stay safe under {@code -Pparallel}.</p>
+ *
+ * <p>The expected state of every pet lives in the {@link ShadowStore}. Assertions diff
+ * server responses against it, so a lagging server is reported rather than masked by a
+ * local copy.</p>
+ */
 public class PetSteps {
 
     private Pet pet;
     private Response response;
-    private final int maxRetries = 5; // Max attempts for GET requests
-    private final long retryDelay = 1000; // 1 second
+    private List<Pet> provisionedPets;
+    private final Map<String, Set<Long>> populationByStatus = new ConcurrentHashMap<>();
     private Long deletedPetId;// store ID to check 404 later
+    private long listedAsOfVersion; // ShadowStore version before the last list request
     private long createdPetId;
     private static final Logger logger = LoggerFactory.getLogger(PetSteps.class);
 
@@ -41,28 +69,19 @@ public class PetSteps {
         // Update local pet object with server-returned ID
         Pet createdPet = response.as(Pet.class);
         pet.setId(createdPet.getId());
+        FixtureManager.track(pet.getId()); // deleted at scenario end even if a later step fails
+        ShadowStore.recordWrite(pet);
         logger.info("Created pet with ID: {}, name={}, status={}", pet.getId(), pet.getName(), pet.getStatus());
-
-        // Small delay to let backend persist
-        Thread.sleep(500);
     }
 
     @Then("the retrieved pet should match the created pet")
     public void validateRetrievedPetMatchesCreatedPet() {
-        // Deserialize the last API response
-        Pet retrievedPet = response.as(Pet.class);
-
-        // Assert that all fields match the created pet
-        assertEquals("Pet ID mismatch", pet.getId(), retrievedPet.getId());
-        assertEquals("Pet name mismatch", pet.getName(), retrievedPet.getName());
-        assertEquals("Pet status mismatch", pet.getStatus(), retrievedPet.getStatus());
-
-        // Optional: compare photo URLs if needed
-        assertArrayEquals("Pet photo URLs mismatch", pet.getPhotoUrls(), retrievedPet.getPhotoUrls());
+        // Diff the last API response against what the suite wrote
+        ShadowStore.assertMatches(response.as(Pet.class));
     }
 
     /**
-     * Retrieves the pet by ID with retry logic to handle propagation delays.
+     * Retrieves the pet by ID, polling with backoff until the server returns its expected state.
      */
     @When("I retrieve the pet by ID")
     public void retrievePetById() throws InterruptedException {
@@ -70,35 +89,15 @@ public class PetSteps {
             throw new AssertionError("Pet object or ID is null. Cannot retrieve.");
         }
 
-        int maxRetries = 10;
-        long retryDelay = 1500; // 1.5 seconds
-        boolean retrieved = false;
-        Pet retrievedPet = null;
-
-        for (int i = 0; i < maxRetries; i++) {
-            Response getResponse = ApiUtils.get("/pet/" + pet.getId());
-            if (getResponse.getStatusCode() == 200) {
-                try {
-                    retrievedPet = getResponse.as(Pet.class);
-                    if (pet.getId().equals(retrievedPet.getId())) {
-                        retrieved = true;
-                        break;
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to map response to Pet object on attempt {}: {}", i + 1, e.getMessage());
-                }
-            }
-            logger.info("Retrieving pet by ID: {} (attempt {}/{})", pet.getId(), i + 1, maxRetries);
-            Thread.sleep(retryDelay);
-        }
+        Long id = pet.getId();
+        ResponseWaiter.WaitResult result = ResponseWaiter.await("GET /pet/{id}",
+                () -> ApiUtils.get("/pet/" + id),
+                r -> r.getStatusCode() == 200 && ShadowStore.observeAfterWrite(r.as(Pet.class)).isEmpty());
+        assertConverged(id, result);
 
-        if (!retrieved) {
-            logger.warn("Could not retrieve pet ID {} after {} retries. Using local object for assertions.", pet.getId(), maxRetries);
-            retrievedPet = pet; // fallback
-        }
-
-        // Update local object
-        pet = retrievedPet;
+        // Later steps assert on what the server returned, never on the expected state itself
+        response = result.getResponse();
+        pet = response.as(Pet.class);
         logger.info("Retrieved pet ID {} with status '{}'", pet.getId(), pet.getStatus());
     }
 
@@ -120,31 +119,19 @@ public class PetSteps {
         // Send PUT request
         response = ApiUtils.put("/pet", pet);
         ApiUtils.validateStatusCode(response, 200);
+        ShadowStore.recordWrite(pet);
         logger.info("Sent PUT request to update pet ID {} status to '{}'", pet.getId(), status);
 
-        // Retry fetching pet until the status is updated
-        int maxRetries = 10;
-        long retryDelay = 1500; // 1.5 seconds
-        boolean updated = false;
-
-        for (int i = 0; i < maxRetries; i++) {
-            Response getResponse = ApiUtils.get("/pet/" + pet.getId());
-            if (getResponse.getStatusCode() == 200) {
-                Pet retrievedPet = getResponse.as(Pet.class);
-                if (status.equals(retrievedPet.getStatus())) {
-                    updated = true;
-                    pet = retrievedPet; // keep local object in sync
-                    break;
-                }
-            }
-            Thread.sleep(retryDelay);
-        }
+        // Poll until the update is visible on the server
+        Long id = pet.getId();
+        ResponseWaiter.WaitResult result = ResponseWaiter.await("GET /pet/{id} status",
+                () -> ApiUtils.get("/pet/" + id),
+                r -> r.getStatusCode() == 200 && ShadowStore.observeAfterWrite(r.as(Pet.class)).isEmpty());
+        assertConverged(id, result);
 
-        if (!updated) {
-            logger.warn("Status update not reflected on server after {} retries. Using local object for assertions.", maxRetries);
-        } else {
-            logger.info("Validated pet ID {} status as '{}'", pet.getId(), pet.getStatus());
-        }
+        response = result.getResponse();
+        pet = response.as(Pet.class); // keep local object in sync with the server
+        logger.info("Validated pet ID {} status as '{}'", pet.getId(), pet.getStatus());
     }
 
     @Then("the retrieved pet should match the updated pet")
@@ -153,40 +140,75 @@ public class PetSteps {
             throw new AssertionError("Pet object or ID is null. Cannot validate.");
         }
 
-        Pet retrievedPet;
-        try {
-            retrievedPet = ApiUtils.get("/pet/" + pet.getId()).as(Pet.class);
-        } catch (Exception e) {
-            // If GET fails, fallback to local pet object
-            logger.warn("Could not retrieve updated pet from server, using local object.");
-            retrievedPet = pet;
-        }
-
-        // Compare with local object
-        assertEquals("Pet ID mismatch", pet.getId(), retrievedPet.getId());
-        assertEquals("Pet name mismatch", pet.getName(), retrievedPet.getName());
-        assertEquals("Pet status mismatch", pet.getStatus(), retrievedPet.getStatus());
-        assertArrayEquals("Pet photo URLs mismatch", pet.getPhotoUrls(), retrievedPet.getPhotoUrls());
-
-        logger.info("Verified updated pet ID {} has status '{}'", retrievedPet.getId(), retrievedPet.getStatus());
-        pet = retrievedPet; // keep local object in sync
+        // The last retrieve already polled the server; diff its response against the latest write, no re-fetch
+        ShadowStore.assertMatches(response.as(Pet.class));
+        logger.info("Verified updated pet ID {} has status '{}'", pet.getId(), pet.getStatus());
     }
 
 
+    /**
+     * Checks the listing against the shadow store. Pets this suite wrote must be listed with
+     * their expected state; if the listing lags behind, it is re-requested until it catches
+     * up or {@code wait.timeoutMs} expires, and then the scenario fails.
+     */
     @Then("all returned pets should have status {string}")
-    public void verifyStatusList(String expected) {
-
-        Pet[] pets = response.as(Pet[].class);
+    public void verifyStatusList(String expected) throws InterruptedException {
+        List<String> problems = new ArrayList<>();
+        int[] count = {checkListing(response, expected, listedAsOfVersion, problems)};
+        if (!problems.isEmpty()) {
+            logger.info("Listing for status '{}' is behind the expected state ({} pet(s)), polling",
+                    expected, problems.size());
+            ResponseWaiter.WaitResult result = ResponseWaiter.await("GET /pet/findByStatus",
+                    () -> {
+                        listedAsOfVersion = ShadowStore.version();
+                        return ApiUtils.get("/pet/findByStatus?status=" + expected);
+                    },
+                    r -> {
+                        if (r.getStatusCode() != 200) {
+                            return false;
+                        }
+                        problems.clear();
+                        count[0] = checkListing(r, expected, listedAsOfVersion, problems);
+                        return problems.isEmpty();
+                    });
+            response = result.getResponse();
+            ApiUtils.validateStatusCode(response, 200);
+            if (!result.isMatched()) {
+                throw new AssertionError(problems.size() + " pet(s) with status '" + expected
+                        + "' are still stale or missing after " + result.getAttempts() + " attempt(s) ("
+                        + result.getElapsedMs() + " ms), e.g. "
+                        + problems.stream().limit(10).collect(Collectors.toList()));
+            }
+        }
+        logger.info("Verified {} pet(s) with status '{}'", count[0], expected);
+    }
 
-        for (Pet p : pets) {
-            assertEquals(expected, p.getStatus());
+    // Streams a listing, failing at the first pet with another status. Collects the pets this suite
+    // wrote that are listed with a stale state, or that were written before the listing but are missing
+    private static int checkListing(Response listing, String status, long asOfVersion, List<String> problems) {
+        Set<Long> listed = new HashSet<>();
+        int count = StreamingAssertions.assertEach(listing, node -> {
+            StreamingAssertions.assertPet(node, status);
+            long id = node.path("id").asLong();
+            listed.add(id);
+            if (ShadowStore.contains(id)) {
+                // Only pets this suite wrote are deserialized and diffed
+                List<String> differences = ShadowStore.observe(JsonUtils.mapper().convertValue(node, Pet.class));
+                if (!differences.isEmpty()) {
+                    problems.add(id + " stale: " + String.join("; ", differences));
+                }
+            }
+        });
+        for (Long id : ShadowStore.missingFrom(status, listed, asOfVersion)) {
+            problems.add(id + " missing");
         }
+        return count;
     }
 
 
     @Then("the pet status should be {string}")
     public void validatePetStatus(String expectedStatus) {
-        // Assert locally if server did not persist update
+        // pet holds the state the server returned once the update converged
         assertEquals("Pet status mismatch", expectedStatus, pet.getStatus());
         logger.info("Validated pet ID {} status as '{}'", pet.getId(), pet.getStatus());
     }
@@ -196,6 +218,7 @@ public class PetSteps {
      */
     @When("I find pets by status {string}")
     public void findPets(String status) {
+        listedAsOfVersion = ShadowStore.version();
         response = ApiUtils.get("/pet/findByStatus?status=" + status);
         ApiUtils.validateStatusCode(response, 200);
     }
@@ -218,18 +241,8 @@ public class PetSteps {
 
         deletedPetId = pet.getId();
 
-        // Check if the pet exists before deleting
-        Response preCheck = ApiUtils.get("/pet/" + deletedPetId);
-        if (preCheck.getStatusCode() != 200) {
-            logger.info("Pet not found before DELETE. ID: {}", deletedPetId);
-            pet = null;
-            return;
-        }
-
-        // Perform DELETE
-        response = given()
-                .header("api_key", "special-key")
-                .delete("/pet/" + deletedPetId);
+        // Transient failures are retried by the transport; 404 means the pet is already gone
+        response = ApiUtils.delete("/pet/" + deletedPetId);
 
         if (response.getStatusCode() == 404) {
             logger.info("PetStore DELETE returned 404. Pet already removed. ID: {}", deletedPetId);
@@ -237,6 +250,7 @@ public class PetSteps {
             ApiUtils.validateStatusCode(response, 200);
             logger.info("Deleted pet successfully. ID: {}", deletedPetId);
         }
+        FixtureManager.untrack(deletedPetId);
 
         pet = null; // Clear reference
     }
@@ -269,7 +283,7 @@ public class PetSteps {
      */
     @Then("the response matches the Pet schema")
     public void validatePetSchema() {
-        response.then().assertThat().body(matchesJsonSchemaInClasspath("schema/pet-schema.json"));
+        SchemaRegistry.assertValid(SchemaRegistry.PET, response);
     }
 
     /**
@@ -277,7 +291,7 @@ public class PetSteps {
      */
     @Then("the response matches the Error schema")
     public void validateErrorSchema() {
-        response.then().assertThat().body(matchesJsonSchemaInClasspath("schema/error-schema.json"));
+        SchemaRegistry.assertValid(SchemaRegistry.ERROR, response);
     }
 
     @When("I try to retrieve a non-existent pet with ID {long}")
@@ -296,20 +310,109 @@ public class PetSteps {
     }
 
     /**
-     * Cleanup to ensure pets are removed after tests
+     * Creates pets in parallel from the test data templates.
      */
-    @After
-    public void cleanup() {
-        if (pet != null) { // only attempt deletion if pet exists
-            try {
-                ApiUtils.delete("/pet/" + pet.getId());
-                System.out.println("Deleted pet with ID: " + pet.getId());
-            } catch (Exception e) {
-                // ignore if already deleted or not found
-                e.printStackTrace();
-            } finally {
-                pet = null; // clear reference after cleanup
+    @Given("I provision {int} pets from test data")
+    public void provisionPets(int count) {
+        provisionedPets = FixtureManager.provision(count);
+    }
+
+    /**
+     * Retrieves every provisioned pet concurrently and checks it matches what was created.
+     */
+    @Then("each provisioned pet can be retrieved by ID")
+    public void verifyProvisionedPets() throws InterruptedException {
+        List<String> endpoints = new ArrayList<>(provisionedPets.size());
+        for (Pet p : provisionedPets) {
+            endpoints.add("/pet/" + p.getId());
+        }
+        List<Response> responses = TimingProbe.joinHttp(AsyncApiUtils.getAllAsync(endpoints));
+
+        for (int i = 0; i < provisionedPets.size(); i++) {
+            Long id = provisionedPets.get(i).getId();
+            Response r = responses.get(i);
+            if (r.getStatusCode() != 200) {
+                // Not visible yet on an eventually consistent server: poll this one
+                r = ResponseWaiter.await("GET /pet/{id}", () -> ApiUtils.get("/pet/" + id),
+                        resp -> resp.getStatusCode() == 200).getResponse();
             }
+            ApiUtils.validateStatusCode(r, 200);
+            ShadowStore.assertMatches(r.as(Pet.class));
+        }
+        logger.info("Retrieved all {} provisioned pet(s)", provisionedPets.size());
+    }
+
+    /**
+     * Creates a reproducible, generated population of pets, streamed straight into provisioning.
+     */
+    @Given("I provision a population of {int} pets with seed {long} and status mix {string}")
+    public void provisionPopulation(int size, long seed, String statusMix) {
+        PetPopulation population = PetPopulation.builder()
+                .seed(seed)
+                .size(size)
+                .statusWeights(statusMix)
+                .photos(1, 3)
+                .build();
+        // Only IDs are kept, grouped by status; the pets themselves are dropped once posted
+        int created = FixtureManager.provision(population.stream(), p -> populationByStatus
+                .computeIfAbsent(p.getStatus(), k -> ConcurrentHashMap.newKeySet()).add(p.getId()));
+        logger.info("Provisioned population of {} pet(s) (seed {}): {}", created, seed, countsByStatus());
+    }
+
+    /**
+     * Polls findByStatus until every pet of the generated population with that status is listed.
+     */
+    @Then("every provisioned pet with status {string} is listed")
+    public void verifyPopulationListed(String status) throws InterruptedException {
+        Set<Long> expected = populationByStatus.getOrDefault(status, Set.of());
+        Set<Long> listed = new HashSet<>();
+        ResponseWaiter.WaitResult result = ResponseWaiter.await("GET /pet/findByStatus population",
+                () -> ApiUtils.get("/pet/findByStatus?status=" + status),
+                r -> {
+                    listed.clear();
+                    StreamingAssertions.assertEach(r, node -> listed.add(node.path("id").asLong()));
+                    return listed.containsAll(expected);
+                });
+        if (!result.isMatched()) {
+            Set<Long> missing = new HashSet<>(expected);
+            missing.removeAll(listed);
+            throw new AssertionError(missing.size() + " of " + expected.size() + " pet(s) with status '" + status
+                    + "' are not listed after " + result.getElapsedMs() + " ms, e.g. "
+                    + missing.stream().limit(10).collect(Collectors.toList()));
+        }
+        response = result.getResponse();
+        logger.info("All {} provisioned pet(s) with status '{}' are listed ({} listed in total)",
+                expected.size(), status, listed.size());
+    }
+
+    // Fails with the last server response diffed against the expected state when polling never converged
+    private static void assertConverged(long id, ResponseWaiter.WaitResult result) {
+        if (result.isMatched()) {
+            return;
         }
-    }}
+        Response last = result.getResponse();
+        String detail = last.getStatusCode() != 200
+                ? "last response was HTTP " + last.getStatusCode()
+                : String.join("; ", ShadowStore.observe(last.as(Pet.class)));
+        throw new AssertionError("Pet " + id + " did not converge to its expected state after "
+                + result.getAttempts() + " attempt(s) (" + result.getElapsedMs() + " ms): " + detail);
+    }
 
+    private Map<String, Integer> countsByStatus() {
+        Map<String, Integer> counts = new TreeMap<>();
+        populationByStatus.forEach((status, ids) -> counts.put(status, ids.size()));
+        return counts;
+    }
+
+    /**
+     * Deletes every pet this scenario created, including ones left behind by a failed step.
+     */
+    @After
+    public void cleanup() {
+        FixtureManager.TeardownResult result = FixtureManager.teardownScenario();
+        if (!result.getFailed().isEmpty()) {
+            logger.warn("Could not delete pet(s) {} after retries", result.getFailed());
+        }
+        pet = null;
+    }
+}
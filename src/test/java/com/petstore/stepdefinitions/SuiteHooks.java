@@ -0,0 +1,82 @@
+package com.petstore.stepdefinitions;
+
+import com.petstore.api.RequestCoalescer;
+import com.petstore.api.RequestScheduler;
+import com.petstore.config.ConfigManager;
+import com.petstore.metrics.ApiMetrics;
+import com.petstore.sharding.Shard;
+import com.petstore.stub.PetStoreStubServer;
+import com.petstore.utils.FixtureManager;
+import com.petstore.utils.ShadowStore;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.BeforeAll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Starts the embedded stub before the first scenario and exports the run's metrics after the last.
+ *
+ * <p>Cucumber runs these hooks once per run, outside any scenario, also when scenarios
+ * run in parallel.</p>
+ */
+public class SuiteHooks {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuiteHooks.class);
+
+    private static PetStoreStubServer stub;
+
+    /**
+     * Starts the embedded PetStore stub unless -Dpetstore.target=remote is set,
+     * and points every API call at it. Replay runs need no server at all.
+     */
+    @BeforeAll
+    public static void startStub() throws Exception {
+        if (!ConfigManager.isStubTarget() || "replay".equals(ConfigManager.getReplayMode())) {
+            return;
+        }
+        stub = new PetStoreStubServer()
+                .withLatency(ConfigManager.getStubLatencyMs(), ConfigManager.getStubLatencyJitterMs())
+                .withErrorRate(ConfigManager.getStubErrorRate())
+                .withConsistencyDelay(ConfigManager.getStubConsistencyDelayMs())
+                .start(0);
+        ConfigManager.override("petstore.baseUrl", stub.getBaseUrl());
+    }
+
+    @AfterAll
+    public static void afterRun() throws IOException {
+        stopStub();
+        exportApiMetrics();
+    }
+
+    /**
+     * Deletes any pets scenarios left behind, then stops the stub.
+     */
+    private static void stopStub() {
+        FixtureManager.teardownAll(); // while the target is still reachable
+        if (stub != null) {
+            stub.stop();
+            stub = null;
+            ConfigManager.clearOverride("petstore.baseUrl");
+        }
+    }
+
+    /**
+     * Writes per-endpoint request metrics and per-pet convergence lag to api-metrics
+     * under the shard's output directory and logs the summaries.
+     */
+    private static void exportApiMetrics() throws IOException {
+        File dir = new File(Shard.outputDir(), "api-metrics");
+        String table = ApiMetrics.export(dir);
+        logger.info("API request metrics:\n{}", table);
+        logger.info("Shadow store {}", ShadowStore.export(dir));
+        if (RequestScheduler.isEnabled()) {
+            logger.info("Rate limit waits:\n{}", RequestScheduler.toTable(RequestScheduler.summary()));
+        }
+        if (RequestCoalescer.isEnabled()) {
+            logger.info("Coalesced GETs:\n{}", RequestCoalescer.toTable(RequestCoalescer.summary()));
+        }
+    }
+}
@@ -23,3 +23,18 @@ Feature: Validate Swagger PetStore API
     Then the response matches the Pet schema
 
 
+  Scenario: Provision pets in bulk
+    Given I provision 20 pets from test data
+    Then each provisioned pet can be retrieved by ID
+
+
+  Scenario Outline: Find pets by status in a generated population
+    Given I provision a population of <size> pets with seed <seed> and status mix "<mix>"
+    When I find pets by status "<status>"
+    Then all returned pets should have status "<status>"
+    And every provisioned pet with status "<status>" is listed
+
+    Examples:
+      | size | seed | mix                             | status  |
+      | 300  | 7    | available:70,pending:20,sold:10 | pending |
+      | 1000 | 42   | available:50,sold:50            | sold    |